@@ -0,0 +1,465 @@
+package com.libedi.new_java_feature.java7;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 대용량 파일 복사
+ * - Files.copy() 는 실패하면 처음부터 다시 복사해야 하고, 진행상황이나 무결성 검사를 제공하지 않는다.
+ * - 파일을 고정 크기 chunk 로 나누어 FileChannel 의 위치 지정 읽기/쓰기로 복사하며, 여러 스레드로 동시에 복사할 수 있다.
+ * - 복사가 끝난 chunk 는 대상 파일 옆의 journal 파일에 기록되어, 중단된 복사를 이어서 진행할 수 있다.
+ * - 각 chunk 는 기록한 내용을 다시 읽어 CRC32 로 검증한다.
+ * - chunk 는 디스크에 반영(force)한 뒤에 journal 에 기록하므로, 이어서 복사할 때는 journal 을 신뢰한다.
+ *   중단 직전에 기록된 chunk (마지막 parallelism 개의 record) 만 대상 파일에서 다시 읽어 CRC32 를 비교하고,
+ *   다른 chunk 는 다시 복사한다. 대상 파일이 없거나 기록된 chunk 보다 짧으면 처음부터 복사한다.
+ * - chunk 크기의 direct buffer 는 worker 마다 한 번 할당하여 이후 호출에서도 재사용한다. (최대 parallelism 개의 buffer 쌍을 보관한다.)
+ * @author Sangjun, Park
+ *
+ */
+public class ChunkedFileCopier {
+
+	public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+	public static final String JOURNAL_SUFFIX = ".copyjournal";
+
+	private final int chunkSize;
+	private final int parallelism;
+	/** 사용하지 않는 worker buffer */
+	private final Queue<WorkerBuffers> idleBuffers = new ConcurrentLinkedQueue<>();
+
+	public ChunkedFileCopier() {
+		this(DEFAULT_CHUNK_SIZE, 1);
+	}
+
+	public ChunkedFileCopier(int chunkSize, int parallelism) {
+		if(chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+		}
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		this.chunkSize = chunkSize;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * 진행상황 리스너
+	 * - 예외를 던지면 복사가 중단되며, 이후 copy() 를 다시 호출하면 이어서 복사한다.
+	 */
+	@FunctionalInterface
+	public static interface ProgressListener {
+		void onProgress(long copiedBytes, long totalBytes);
+	}
+
+	public long copy(Path source, Path target) throws IOException {
+		return copy(source, target, (copiedBytes, totalBytes) -> {});
+	}
+
+	/**
+	 * 파일 복사. journal 파일이 있으면 이어서 복사한다.
+	 * @param source
+	 * @param target
+	 * @param listener
+	 * @return 이번 호출에서 복사한 byte 수
+	 * @throws IOException
+	 */
+	public long copy(Path source, Path target, ProgressListener listener) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+		long size = attributes.size();
+		long chunkCount = (size + this.chunkSize - 1) / this.chunkSize;
+		if(chunkCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many chunks. Use a larger chunkSize: " + this.chunkSize);
+		}
+		Path journalPath = journalPath(target);
+
+		long copied;
+		boolean targetExists = Files.exists(target);
+		try(FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				Journal journal = Journal.open(journalPath, size, attributes.lastModifiedTime().toMillis(), this.chunkSize, (int) chunkCount)) {
+			verifyCompleted(out, journal, targetExists, size);
+			copied = copyChunks(in, out, journal, size, (int) chunkCount, listener);
+			out.truncate(size);
+			out.force(true);
+		}
+		Files.delete(journalPath);
+		return copied;
+	}
+
+	public static Path journalPath(Path target) {
+		return target.resolveSibling(target.getFileName() + JOURNAL_SUFFIX);
+	}
+
+	/**
+	 * journal 에 기록된 chunk 가 대상 파일에 그대로 있는지 확인한다.
+	 * - 대상 파일이 없거나 기록된 chunk 보다 짧으면 journal 을 초기화한다.
+	 * - 마지막 parallelism 개의 record 의 chunk 만 다시 읽는다. CRC32 가 다르면 완료 표시를 지워 다시 복사한다.
+	 */
+	private void verifyCompleted(FileChannel out, Journal journal, boolean targetExists, long size) throws IOException {
+		BitSet completed = journal.completed();
+		if(completed.isEmpty()) {
+			return;
+		}
+		int lastChunk = completed.length() - 1;
+		long expectedSize = Math.min(size, (long) (lastChunk + 1) * this.chunkSize);
+		if(!targetExists || out.size() < expectedSize) {
+			journal.reset();
+			return;
+		}
+		WorkerBuffers buffers = acquireBuffers(size);
+		try {
+			ByteBuffer buffer = buffers.buffer;
+			for(int chunk : journal.recentChunks(this.parallelism)) {
+				if(chunk < 0 || !completed.get(chunk)) {
+					continue;	// 범위 밖이거나 이미 확인한 chunk
+				}
+				completed.clear(chunk);
+				long position = (long) chunk * this.chunkSize;
+				int length = (int) Math.min(this.chunkSize, size - position);
+				buffer.clear().limit(length);
+				while(buffer.hasRemaining() && out.read(buffer, position + buffer.position()) >= 0) {
+					// chunk 읽기
+				}
+				buffer.flip();
+				buffers.crc.reset();
+				buffers.crc.update(buffer);
+				if(buffer.limit() != length || (int) buffers.crc.getValue() != journal.checksum(chunk)) {
+					journal.discard(chunk);
+				}
+			}
+		} finally {
+			this.idleBuffers.offer(buffers);
+		}
+	}
+
+	private long copyChunks(FileChannel in, FileChannel out, Journal journal, long size, int chunkCount,
+			ProgressListener listener) throws IOException {
+		BitSet completed = journal.completed();
+		AtomicInteger nextChunk = new AtomicInteger(completed.nextClearBit(0));
+		AtomicLong copiedBytes = new AtomicLong(completedBytes(completed, size));
+		AtomicLong copiedThisRun = new AtomicLong();
+
+		Runnable worker = () -> {
+			WorkerBuffers buffers = acquireBuffers(size);
+			try {
+				int chunk;
+				while((chunk = claim(nextChunk, completed, chunkCount)) < chunkCount) {
+					try {
+						long position = (long) chunk * this.chunkSize;
+						int length = (int) Math.min(this.chunkSize, size - position);
+						int checksum = copyChunk(in, out, position, length, buffers.buffer, buffers.verifyBuffer, buffers.crc);
+						journal.append(chunk, checksum);
+						copiedThisRun.addAndGet(length);
+						listener.onProgress(copiedBytes.addAndGet(length), size);
+					} catch(IOException e) {
+						nextChunk.set(chunkCount);	// 다른 worker 도 중단
+						throw new ChunkCopyException(e);
+					} catch(RuntimeException | Error e) {
+						nextChunk.set(chunkCount);
+						throw e;
+					}
+				}
+			} finally {
+				this.idleBuffers.offer(buffers);
+			}
+		};
+
+		if(this.parallelism == 1) {
+			try {
+				worker.run();
+			} catch(ChunkCopyException e) {
+				throw e.getCause();
+			}
+		} else {
+			runParallel(worker);
+		}
+		return copiedThisRun.get();
+	}
+
+	private void runParallel(Runnable worker) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+		try {
+			List<Future<?>> futures = new ArrayList<>(this.parallelism);
+			for(int i = 0; i < this.parallelism; i++) {
+				futures.add(executor.submit(worker));
+			}
+			Throwable failure = null;
+			for(Future<?> future : futures) {
+				try {
+					future.get();
+				} catch(ExecutionException e) {
+					Throwable cause = e.getCause() instanceof ChunkCopyException ? e.getCause().getCause() : e.getCause();
+					if(failure == null) {
+						failure = cause;
+					} else {
+						failure.addSuppressed(cause);
+					}
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while copying", e);
+				}
+			}
+			if(failure instanceof IOException) {
+				throw (IOException) failure;
+			}
+			if(failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			if(failure instanceof Error) {
+				throw (Error) failure;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 보관 중인 buffer 를 꺼낸다. 없거나 이번 파일의 chunk 보다 작으면 새로 할당한다.
+	 */
+	private WorkerBuffers acquireBuffers(long size) {
+		int capacity = (int) Math.min(this.chunkSize, Math.max(size, 1));
+		WorkerBuffers buffers = this.idleBuffers.poll();
+		if(buffers == null || buffers.buffer.capacity() < capacity) {
+			buffers = new WorkerBuffers(capacity);
+		}
+		return buffers;
+	}
+
+	private static int claim(AtomicInteger nextChunk, BitSet completed, int chunkCount) {
+		while(true) {
+			int chunk = nextChunk.get();
+			if(chunk >= chunkCount) {
+				return chunkCount;
+			}
+			int next = completed.nextClearBit(chunk + 1);
+			if(nextChunk.compareAndSet(chunk, next)) {
+				return chunk;
+			}
+		}
+	}
+
+	private static int copyChunk(FileChannel in, FileChannel out, long position, int length,
+			ByteBuffer buffer, ByteBuffer verifyBuffer, CRC32 crc) throws IOException {
+		buffer.clear().limit(length);
+		while(buffer.hasRemaining()) {
+			if(in.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Source file shrank while copying at " + (position + buffer.position()));
+			}
+		}
+		buffer.flip();
+		crc.reset();
+		crc.update(buffer);
+		int checksum = (int) crc.getValue();
+
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			out.write(buffer, position + buffer.position());
+		}
+
+		// 기록한 내용을 다시 읽어서 검증
+		verifyBuffer.clear().limit(length);
+		while(verifyBuffer.hasRemaining()) {
+			if(out.read(verifyBuffer, position + verifyBuffer.position()) < 0) {
+				throw new EOFException("Target file is shorter than written at " + (position + verifyBuffer.position()));
+			}
+		}
+		verifyBuffer.flip();
+		crc.reset();
+		crc.update(verifyBuffer);
+		if((int) crc.getValue() != checksum) {
+			throw new IOException("Checksum mismatch at position " + position);
+		}
+		// journal 에 기록하기 전에 chunk 를 디스크에 반영한다.
+		out.force(false);
+		return checksum;
+	}
+
+	private long completedBytes(BitSet completed, long size) {
+		long bytes = 0;
+		for(int chunk = completed.nextSetBit(0); chunk >= 0; chunk = completed.nextSetBit(chunk + 1)) {
+			bytes += Math.min(this.chunkSize, size - (long) chunk * this.chunkSize);
+		}
+		return bytes;
+	}
+
+	/**
+	 * worker 하나가 사용하는 buffer
+	 */
+	private static final class WorkerBuffers {
+		private final ByteBuffer buffer;
+		private final ByteBuffer verifyBuffer;
+		private final CRC32 crc = new CRC32();
+
+		WorkerBuffers(int capacity) {
+			this.buffer = ByteBuffer.allocateDirect(capacity);
+			this.verifyBuffer = ByteBuffer.allocateDirect(capacity);
+		}
+	}
+
+	/**
+	 * worker 의 IOException 을 Runnable 밖으로 전달하기 위한 예외
+	 */
+	private static class ChunkCopyException extends RuntimeException {
+
+		private static final long serialVersionUID = 6152283120581944727L;
+
+		ChunkCopyException(IOException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized IOException getCause() {
+			return (IOException) super.getCause();
+		}
+	}
+
+	/**
+	 * 복사 journal
+	 * - header : magic(int), 원본 크기(long), 원본 수정시각(long), chunk 크기(int)
+	 * - record : chunk 번호(int), CRC32(int). 같은 chunk 의 record 가 여럿이면 마지막 record 가 유효하다.
+	 * - header 가 원본과 맞지 않으면 처음부터 다시 복사한다.
+	 */
+	private static class Journal implements AutoCloseable {
+
+		private static final int MAGIC = 0x434A524E;
+		private static final int HEADER_SIZE = 4 + 8 + 8 + 4;
+		private static final int RECORD_SIZE = 4 + 4;
+
+		private final FileChannel channel;
+		private final BitSet completed;
+		private final int[] checksums;
+		private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+		private long position;
+
+		private Journal(FileChannel channel, BitSet completed, int[] checksums, long position) {
+			this.channel = channel;
+			this.completed = completed;
+			this.checksums = checksums;
+			this.position = position;
+		}
+
+		static Journal open(Path path, long size, long lastModified, int chunkSize, int chunkCount) throws IOException {
+			FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			try {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC).putLong(size).putLong(lastModified).putInt(chunkSize).flip();
+
+				BitSet completed = new BitSet(chunkCount);
+				int[] checksums = new int[chunkCount];
+				// 다시 복사한 chunk 는 record 가 여럿일 수 있으므로 journal 전체를 읽는다.
+				if(channel.size() > Integer.MAX_VALUE) {
+					throw new IOException("Journal is too large: " + path);
+				}
+				ByteBuffer existing = ByteBuffer.allocate((int) channel.size());
+				while(existing.hasRemaining() && channel.read(existing, existing.position()) >= 0) {
+					// 기존 journal 읽기
+				}
+				existing.flip();
+				if(existing.remaining() >= HEADER_SIZE && header.equals(existing.duplicate().limit(HEADER_SIZE))) {
+					existing.position(HEADER_SIZE);
+					// 마지막 record 가 잘린 경우는 무시
+					while(existing.remaining() >= RECORD_SIZE) {
+						int chunk = existing.getInt();
+						int checksum = existing.getInt();
+						if(chunk >= 0 && chunk < chunkCount) {
+							completed.set(chunk);
+							checksums[chunk] = checksum;
+						}
+					}
+					return new Journal(channel, completed, checksums, existing.position());
+				}
+
+				// 새로운 journal
+				channel.truncate(0);
+				while(header.hasRemaining()) {
+					channel.write(header, header.position());
+				}
+				channel.force(false);
+				return new Journal(channel, completed, checksums, HEADER_SIZE);
+			} catch(IOException | RuntimeException e) {
+				channel.close();
+				throw e;
+			}
+		}
+
+		BitSet completed() {
+			return (BitSet) this.completed.clone();
+		}
+
+		int checksum(int chunk) {
+			return this.checksums[chunk];
+		}
+
+		/**
+		 * 마지막 count 개의 record 의 chunk 번호. 같은 chunk 가 여러 번 나올 수 있다.
+		 */
+		int[] recentChunks(int count) throws IOException {
+			int records = (int) Math.min(count, (this.position - HEADER_SIZE) / RECORD_SIZE);
+			ByteBuffer buffer = ByteBuffer.allocate(records * RECORD_SIZE);
+			long start = this.position - buffer.capacity();
+			while(buffer.hasRemaining()) {
+				if(this.channel.read(buffer, start + buffer.position()) < 0) {
+					throw new EOFException("Journal is shorter than expected");
+				}
+			}
+			buffer.flip();
+			int[] chunks = new int[records];
+			for(int i = 0; i < records; i++) {
+				chunks[i] = buffer.getInt();
+				buffer.getInt();	// CRC32 는 checksums 에 있다.
+			}
+			return chunks;
+		}
+
+		/**
+		 * 완료 표시만 지운다. 다시 복사하면 새 record 가 뒤에 추가된다.
+		 */
+		void discard(int chunk) {
+			this.completed.clear(chunk);
+		}
+
+		/**
+		 * header 만 남기고 모든 record 를 지운다.
+		 */
+		void reset() throws IOException {
+			this.channel.truncate(HEADER_SIZE);
+			this.channel.force(false);
+			this.position = HEADER_SIZE;
+			this.completed.clear();
+		}
+
+		synchronized void append(int chunk, int checksum) throws IOException {
+			this.record.clear();
+			this.record.putInt(chunk).putInt(checksum).flip();
+			while(this.record.hasRemaining()) {
+				this.position += this.channel.write(this.record, this.position);
+			}
+			this.channel.force(false);
+			this.completed.set(chunk);
+			this.checksums[chunk] = checksum;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,286 @@
+package com.libedi.new_java_feature.java7;
+
+import java.io.IOException;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 파일 속성 캐시
+ * - Files.exists(), Files.notExists(), Files.isDirectory(), Files.isRegularFile() 은 호출할 때마다 파일 속성을 조회(stat)한다.
+ * - 이 캐시는 Files.readAttributes() 로 BasicFileAttributes 를 한 번만 조회하여 위 질의에 모두 응답하고, TTL 이 지나면 다시 조회한다.
+ * - 이 클래스를 통한 생성/복사/이동/삭제는 관련 경로의 캐시를 무효화한다.
+ *   (다른 경로로 파일이 변경되면 TTL 동안은 이전 속성이 반환될 수 있다.)
+ * - 캐시된 경로를 상위 디렉토리별로 색인하므로, 무효화 비용은 캐시 크기가 아니라 무효화할 하위 경로 수에 비례한다.
+ * - 조회 중에 그 경로가 무효화되면 조회 결과를 캐시하지 않는다. (무효화 이전의 속성이 다시 캐시되지 않는다.)
+ * @author Sangjun, Park
+ *
+ */
+public class FileAttributeCache {
+
+	private final long ttlNanos;
+	private final ConcurrentMap<Path, Entry> entries = new ConcurrentHashMap<>();
+	/** 디렉토리 -> 캐시된 하위 경로. 캐시된 경로의 상위 디렉토리는 모두 색인된다. */
+	private final ConcurrentMap<Path, Set<Path>> children = new ConcurrentHashMap<>();
+
+	public FileAttributeCache(long ttl, TimeUnit unit) {
+		if(ttl < 0) {
+			throw new IllegalArgumentException("ttl must not be negative: " + ttl);
+		}
+		this.ttlNanos = unit.toNanos(ttl);
+	}
+
+	/**
+	 * 파일 속성 조회
+	 * @param path
+	 * @return 파일 속성. 파일이 존재하지 않으면 null.
+	 * @throws IOException 파일 존재 여부를 확인할 수 없는 경우
+	 */
+	public BasicFileAttributes readAttributes(Path path) throws IOException {
+		Path key = key(path);
+		long now = System.nanoTime();
+		Entry entry = this.entries.get(key);
+		if(entry == null || entry.isExpired(now)) {
+			entry = load(key, now);
+		}
+		return entry.attributes;
+	}
+
+	/**
+	 * Files.exists(path) 와 동일. 존재 여부를 확인할 수 없으면 false.
+	 */
+	public boolean exists(Path path) {
+		try {
+			return readAttributes(path) != null;
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Files.notExists(path) 와 동일. 존재 여부를 확인할 수 없으면 false.
+	 */
+	public boolean notExists(Path path) {
+		try {
+			return readAttributes(path) == null;
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Files.isDirectory(path) 와 동일.
+	 */
+	public boolean isDirectory(Path path) {
+		try {
+			BasicFileAttributes attributes = readAttributes(path);
+			return attributes != null && attributes.isDirectory();
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Files.isRegularFile(path) 와 동일.
+	 */
+	public boolean isRegularFile(Path path) {
+		try {
+			BasicFileAttributes attributes = readAttributes(path);
+			return attributes != null && attributes.isRegularFile();
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 디렉토리의 하위 항목 속성을 DirectoryStream 한 번의 순회로 미리 조회한다.
+	 * @param directory
+	 * @return 조회한 하위 항목 수
+	 * @throws IOException
+	 */
+	public int prefetch(Path directory) throws IOException {
+		Path key = key(directory);
+		int count = 0;
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(key)) {
+			for(Path child : stream) {
+				try {
+					load(child, System.nanoTime());
+					count++;
+				} catch(IOException e) {
+					// 조회할 수 없는 항목은 캐시하지 않는다.
+				}
+			}
+		}
+		load(key, System.nanoTime());
+		return count;
+	}
+
+	/**
+	 * 경로와 하위 경로의 캐시를 무효화한다.
+	 * @param path
+	 */
+	public void invalidate(Path path) {
+		Path key = key(path);
+		invalidateTree(key);
+		Path parent = key.getParent();
+		if(parent != null) {
+			this.entries.remove(parent);
+		}
+	}
+
+	/**
+	 * 색인을 떼어낸 뒤 하위 경로를 따라 내려가며 제거한다.
+	 * 떼어낸 뒤에 색인되는 경로는 무효화 이후에 조회를 시작했으므로 새 속성을 읽는다.
+	 */
+	private void invalidateTree(Path key) {
+		this.entries.remove(key);
+		Set<Path> descendants = this.children.remove(key);
+		if(descendants != null) {
+			for(Path child : descendants) {
+				invalidateTree(child);
+			}
+		}
+	}
+
+	public void invalidateAll() {
+		this.entries.clear();
+		this.children.clear();
+	}
+
+	/*
+	 * 캐시를 무효화하는 파일 연산
+	 */
+	public Path createFile(Path path, FileAttribute<?>... attrs) throws IOException {
+		try {
+			return Files.createFile(path, attrs);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	public Path createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+		try {
+			return Files.createDirectory(dir, attrs);
+		} finally {
+			invalidate(dir);
+		}
+	}
+
+	public Path copy(Path source, Path target, CopyOption... options) throws IOException {
+		try {
+			return Files.copy(source, target, options);
+		} finally {
+			invalidate(target);
+		}
+	}
+
+	public Path move(Path source, Path target, CopyOption... options) throws IOException {
+		try {
+			return Files.move(source, target, options);
+		} finally {
+			invalidate(source);
+			invalidate(target);
+		}
+	}
+
+	public void delete(Path path) throws IOException {
+		try {
+			Files.delete(path);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	public boolean deleteIfExists(Path path) throws IOException {
+		try {
+			return Files.deleteIfExists(path);
+		} finally {
+			invalidate(path);
+		}
+	}
+
+	/**
+	 * 속성을 조회하여 캐시한다.
+	 * - 조회 전에 보이는 항목 (없으면 조회 중 표시) 을 기억해 두고, 조회 후 그 항목이 그대로일 때만 교체한다.
+	 *   조회 중에 invalidate() 가 항목을 제거했으면 교체하지 않으므로, 무효화 이전에 읽은 속성이 캐시되지 않는다.
+	 */
+	private Entry load(Path key, long now) throws IOException {
+		index(key);
+		Entry current = this.entries.get(key);
+		if(current == null) {
+			Entry loading = new Entry(null, now, true);
+			current = this.entries.putIfAbsent(key, loading);
+			if(current == null) {
+				current = loading;
+			}
+		}
+		Entry entry;
+		try {
+			entry = new Entry(Files.readAttributes(key, BasicFileAttributes.class), now + this.ttlNanos);
+		} catch(NoSuchFileException e) {
+			entry = new Entry(null, now + this.ttlNanos);
+		}
+		this.entries.replace(key, current, entry);
+		return entry;
+	}
+
+	/**
+	 * 상위 디렉토리의 색인에 등록한다. 상위 디렉토리의 색인을 새로 만들면 그 디렉토리도 위로 등록한다.
+	 * - 등록하는 동안 invalidate() 가 색인을 떼어냈으면 새 색인에 다시 등록한다.
+	 */
+	private void index(Path key) {
+		Path parent = key.getParent();
+		if(parent == null) {
+			return;
+		}
+		while(true) {
+			Set<Path> siblings = this.children.get(parent);
+			if(siblings == null) {
+				Set<Path> created = ConcurrentHashMap.newKeySet();
+				siblings = this.children.putIfAbsent(parent, created);
+				if(siblings == null) {
+					siblings = created;
+					index(parent);
+				}
+			}
+			siblings.add(key);
+			if(this.children.get(parent) == siblings) {
+				return;
+			}
+		}
+	}
+
+	private static Path key(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	private static class Entry {
+		private final BasicFileAttributes attributes;
+		private final long expiresAt;
+		/** 조회 중 표시. 다른 조회자에게는 만료된 항목으로 보인다. */
+		private final boolean loading;
+
+		Entry(BasicFileAttributes attributes, long expiresAt) {
+			this(attributes, expiresAt, false);
+		}
+
+		Entry(BasicFileAttributes attributes, long expiresAt, boolean loading) {
+			this.attributes = attributes;
+			this.expiresAt = expiresAt;
+			this.loading = loading;
+		}
+
+		boolean isExpired(long now) {
+			return this.loading || now - this.expiresAt >= 0;
+		}
+	}
+
+}
@@ -2,13 +2,15 @@ package com.libedi.new_java_feature.java7;
 
 import java.io.IOException;
 
+import com.libedi.new_java_feature.jfr.ExceptionThrowEvent;
+
 public class MultiExceptionClass {
 
 	public void throwIOException() throws IOException {
-		throw new IOException();
+		throw ExceptionThrowEvent.record(new IOException());
 	}
 	
 	public void throwTestException() throws TestException {
-		throw new TestException();
+		throw ExceptionThrowEvent.record(new TestException());
 	}
 }
@@ -3,6 +3,9 @@ package com.libedi.new_java_feature.java7;
 import java.io.Closeable;
 import java.io.IOException;
 
+import com.libedi.new_java_feature.jfr.ExceptionThrowEvent;
+import com.libedi.new_java_feature.jfr.ResourceEvent;
+
 public class NewResource extends Resource implements AutoCloseable, Closeable {
 
 	public NewResource(String oldAndNew) {
@@ -11,14 +14,21 @@ public class NewResource extends Resource implements AutoCloseable, Closeable {
 
 	@Override
 	public void close() throws IOException {
+		ResourceEvent event = ResourceEvent.start(ResourceEvent.CLOSE);
 		System.out.println("New Resource Close!");
+		event.finish(getClass());
 	}
 	
 	public static NewResource getResource(boolean isException) throws IOException {
-		if(isException) {
-			throw new IOException();
+		ResourceEvent event = ResourceEvent.start(ResourceEvent.ACQUIRE);
+		try {
+			if(isException) {
+				throw ExceptionThrowEvent.record(new IOException());
+			}
+			return new NewResource("New");
+		} finally {
+			event.finish(NewResource.class);
 		}
-		return new NewResource("New");
 	}
 
 }
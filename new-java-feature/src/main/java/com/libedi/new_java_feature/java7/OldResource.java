@@ -3,6 +3,9 @@ package com.libedi.new_java_feature.java7;
 import java.io.Closeable;
 import java.io.IOException;
 
+import com.libedi.new_java_feature.jfr.ExceptionThrowEvent;
+import com.libedi.new_java_feature.jfr.ResourceEvent;
+
 /**
  * Something Resource for Test
  * @author Sangjun, Park
@@ -16,14 +19,21 @@ public class OldResource extends Resource implements Closeable {
 
 	@Override
 	public void close() throws IOException {
+		ResourceEvent event = ResourceEvent.start(ResourceEvent.CLOSE);
 		System.out.println("Old Resource Close!");
+		event.finish(getClass());
 	}
 	
 	public static OldResource getResource(boolean isException) throws IOException {
-		if(isException) {
-			throw new IOException();
+		ResourceEvent event = ResourceEvent.start(ResourceEvent.ACQUIRE);
+		try {
+			if(isException) {
+				throw ExceptionThrowEvent.record(new IOException());
+			}
+			return new OldResource("Old");
+		} finally {
+			event.finish(OldResource.class);
 		}
-		return new OldResource("Old");
 	}
 	
 }
@@ -1,5 +1,7 @@
 package com.libedi.new_java_feature.java7;
 
+import com.libedi.new_java_feature.jfr.ResourceEvent;
+
 public abstract class Resource {
 	
 	private String oldAndNew;
@@ -9,7 +11,9 @@ public abstract class Resource {
 	}
 	
 	public void use() {
+		ResourceEvent event = ResourceEvent.start(ResourceEvent.USE);
 		System.out.println("Use resouce: " + this.oldAndNew);
+		event.finish(getClass());
 	}
 	
 }
@@ -0,0 +1,179 @@
+package com.libedi.new_java_feature.java7;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 여러 자원을 동시에 획득한다.
+ * - 자원을 하나씩 획득하면 전체 지연시간은 각 지연시간의 합이 되지만, 동시에 획득하면 가장 긴 지연시간이 된다.
+ * - 전체 획득에 하나의 deadline 을 적용한다.
+ * - 하나라도 실패하거나 deadline 을 넘기면, 나머지 획득을 취소하고 이미 획득한 자원은 해제한다.
+ * @author Sangjun, Park
+ *
+ */
+public class ResourceAcquirer {
+
+	private final ExecutorService executor;
+
+	public ResourceAcquirer(ExecutorService executor) {
+		if(executor == null) {
+			throw new IllegalArgumentException("executor must not be null");
+		}
+		this.executor = executor;
+	}
+
+	/**
+	 * 모든 자원을 동시에 획득한다.
+	 * @param suppliers 자원 획득 함수 목록
+	 * @param timeout 전체 획득 제한시간
+	 * @param unit
+	 * @return suppliers 와 같은 순서의 자원 목록
+	 * @throws ResourceAcquisitionException 하나라도 획득에 실패하거나 제한시간을 넘긴 경우
+	 */
+	public <T extends AutoCloseable> List<T> acquireAll(List<? extends ResourceSupplier<? extends T>> suppliers,
+			long timeout, TimeUnit unit) throws ResourceAcquisitionException {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		final int count = suppliers.size();
+		final Acquisition acquisition = new Acquisition(count);
+
+		CompletionService<Void> completionService = new ExecutorCompletionService<>(this.executor);
+		List<Future<Void>> futures = new ArrayList<>(count);
+		Throwable failure = null;
+		boolean interrupted = false;
+		try {
+			for(int i = 0; i < count; i++) {
+				final int index = i;
+				final ResourceSupplier<? extends T> supplier = suppliers.get(i);
+				futures.add(completionService.submit(() -> {
+					acquisition.complete(index, supplier.get());
+					return null;
+				}));
+			}
+
+			for(int done = 0; done < count; done++) {
+				long remaining = deadline - System.nanoTime();
+				Future<Void> future = remaining > 0 ? completionService.poll(remaining, TimeUnit.NANOSECONDS) : null;
+				if(future == null) {
+					failure = new TimeoutException("Resource acquisition timed out after " + timeout + " " + unit);
+					break;
+				}
+				try {
+					future.get();
+				} catch(ExecutionException e) {
+					failure = e.getCause();
+					break;
+				}
+			}
+		} catch(InterruptedException e) {
+			interrupted = true;
+			failure = e;
+		} catch(RuntimeException e) {
+			// 작업 제출 실패 (RejectedExecutionException 등)
+			failure = e;
+		} catch(Error e) {
+			// 작업 스레드 생성 실패 (OutOfMemoryError) 등 : 이미 획득한 자원을 해제하고 그대로 던진다.
+			release(acquisition, futures, e, e);
+			throw e;
+		}
+
+		if(failure == null) {
+			return acquisition.result();
+		}
+
+		ResourceAcquisitionException exception = new ResourceAcquisitionException("Failed to acquire resources", failure);
+		release(acquisition, futures, failure, exception);
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		throw exception;
+	}
+
+	/**
+	 * 실패 : 나머지 획득을 취소하고, 이미 획득한 자원을 해제한다.
+	 * @param acquisition
+	 * @param futures
+	 * @param failure 실패 원인
+	 * @param exception 해제 중에 발생한 예외를 suppressed 로 추가할 예외
+	 */
+	private static void release(Acquisition acquisition, List<Future<Void>> futures, Throwable failure, Throwable exception) {
+		for(AutoCloseable resource : acquisition.abort()) {
+			try {
+				resource.close();
+			} catch(Exception e) {
+				exception.addSuppressed(e);
+			}
+		}
+		for(Future<Void> future : futures) {
+			future.cancel(true);
+		}
+		for(Future<Void> future : futures) {
+			if(future.isDone() && !future.isCancelled()) {
+				try {
+					future.get();
+				} catch(ExecutionException e) {
+					if(e.getCause() != failure) {
+						exception.addSuppressed(e.getCause());
+					}
+				} catch(InterruptedException | CancellationException e) {
+					// 이미 완료된 작업이므로 발생하지 않는다.
+				}
+			}
+		}
+	}
+
+	/**
+	 * 획득 상태
+	 * - 취소 이후에 획득이 끝난 자원은 획득한 작업에서 바로 해제한다.
+	 */
+	private static class Acquisition {
+
+		private final AutoCloseable[] acquired;
+		private boolean aborted;
+
+		Acquisition(int count) {
+			this.acquired = new AutoCloseable[count];
+		}
+
+		void complete(int index, AutoCloseable resource) throws Exception {
+			synchronized(this) {
+				if(!this.aborted) {
+					this.acquired[index] = resource;
+					return;
+				}
+			}
+			if(resource != null) {
+				resource.close();
+			}
+		}
+
+		synchronized List<AutoCloseable> abort() {
+			this.aborted = true;
+			List<AutoCloseable> resources = new ArrayList<>(this.acquired.length);
+			for(int i = this.acquired.length - 1; i >= 0; i--) {
+				if(this.acquired[i] != null) {
+					resources.add(this.acquired[i]);
+					this.acquired[i] = null;
+				}
+			}
+			return resources;
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized <T> List<T> result() {
+			List<T> resources = new ArrayList<>(this.acquired.length);
+			for(AutoCloseable resource : this.acquired) {
+				resources.add((T) resource);
+			}
+			return resources;
+		}
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.libedi.new_java_feature.java7;
+
+import java.io.IOException;
+
+/**
+ * 자원 획득 실패 예외
+ * - cause 는 처음 발생한 실패 원인이며, 그 외의 실패와 자원 해제 실패는 suppressed 로 추가된다.
+ * @author Sangjun, Park
+ *
+ */
+public class ResourceAcquisitionException extends IOException {
+
+	private static final long serialVersionUID = -2419380470524771385L;
+
+	public ResourceAcquisitionException(String message) {
+		super(message);
+	}
+
+	public ResourceAcquisitionException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
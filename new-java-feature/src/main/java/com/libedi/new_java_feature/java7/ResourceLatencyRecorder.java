@@ -0,0 +1,133 @@
+package com.libedi.new_java_feature.java7;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import com.libedi.new_java_feature.java8.LatencyHistogram;
+import com.libedi.new_java_feature.java8.LatencyRecorder;
+
+/**
+ * Resource.use() / close() 의 지연 시간 분포 기록
+ * - 호출 횟수나 평균으로는 보이지 않는 p99.9 지연을 보기 위해, 호출마다 LatencyRecorder 에 기록한다.
+ * - 예외가 발생한 호출도 기록한다.
+ * - interval histogram 은 encode() 로 다른 노드에 보내고, add() 로 합칠 수 있다.
+ *
+ * <pre>
+ * try(ResourceLatencyRecorder.TimedResource resource = recorder.wrap(NewResource.getResource(false))) {
+ *     resource.use();
+ * }
+ * LatencyHistogram use = recorder.getUseRecorder().intervalHistogram();
+ * </pre>
+ * @author Sangjun, Park
+ *
+ */
+public class ResourceLatencyRecorder {
+
+	private final LatencyRecorder useRecorder;
+	private final LatencyRecorder closeRecorder;
+
+	public ResourceLatencyRecorder() {
+		this(LatencyHistogram.DEFAULT_SUB_BUCKET_BITS);
+	}
+
+	public ResourceLatencyRecorder(int subBucketBits) {
+		this.useRecorder = new LatencyRecorder(subBucketBits);
+		this.closeRecorder = new LatencyRecorder(subBucketBits);
+	}
+
+	public LatencyRecorder getUseRecorder() {
+		return this.useRecorder;
+	}
+
+	public LatencyRecorder getCloseRecorder() {
+		return this.closeRecorder;
+	}
+
+	/**
+	 * resource.use() 의 시간을 기록한다.
+	 * @param resource
+	 */
+	public void use(Resource resource) {
+		long start = System.nanoTime();
+		try {
+			resource.use();
+		} finally {
+			this.useRecorder.recordSince(start);
+		}
+	}
+
+	/**
+	 * resource.close() 의 시간을 기록한다.
+	 * @param resource
+	 * @throws Exception close() 의 예외
+	 */
+	public void close(AutoCloseable resource) throws Exception {
+		long start = System.nanoTime();
+		try {
+			resource.close();
+		} finally {
+			this.closeRecorder.recordSince(start);
+		}
+	}
+
+	/**
+	 * use() 와 close() 를 기록하는 Resource. try-with-resources 에서 사용한다.
+	 * @param resource close() 는 resource 가 AutoCloseable 인 경우에만 위임한다.
+	 * @return
+	 */
+	public TimedResource wrap(Resource resource) {
+		return new TimedResource(resource);
+	}
+
+	/**
+	 * close() 를 기록하는 AutoCloseable
+	 * @param resource
+	 * @return
+	 */
+	public AutoCloseable wrapCloseable(AutoCloseable resource) {
+		return () -> close(resource);
+	}
+
+	public class TimedResource extends Resource implements AutoCloseable {
+
+		private final Resource resource;
+
+		private TimedResource(Resource resource) {
+			super(null);
+			this.resource = resource;
+		}
+
+		public Resource getResource() {
+			return this.resource;
+		}
+
+		@Override
+		public void use() {
+			ResourceLatencyRecorder.this.use(this.resource);
+		}
+
+		/**
+		 * IOException, RuntimeException 이 아닌 예외는 IOException 으로 감싼다.
+		 * InterruptedException 이면 interrupt 상태를 복원하고 InterruptedIOException 으로 감싼다. (ResourceScope 와 동일)
+		 */
+		@Override
+		public void close() throws IOException {
+			if(!(this.resource instanceof AutoCloseable)) {
+				return;
+			}
+			try {
+				ResourceLatencyRecorder.this.close((AutoCloseable) this.resource);
+			} catch(IOException | RuntimeException e) {
+				throw e;
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				InterruptedIOException interrupted = new InterruptedIOException(e.getMessage());
+				interrupted.initCause(e);
+				throw interrupted;
+			} catch(Exception e) {
+				throw new IOException(e);
+			}
+		}
+	}
+
+}
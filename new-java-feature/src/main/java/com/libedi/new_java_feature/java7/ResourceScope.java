@@ -0,0 +1,173 @@
+package com.libedi.new_java_feature.java7;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+
+/**
+ * 여러 개의 AutoCloseable 자원을 하나의 범위(scope)로 묶어 관리한다.
+ * - 중첩된 try-with-resources 대신, 등록한 순서의 역순으로 한 번에 자원을 해제한다.
+ * - 처음 4개의 자원은 필드에 보관하므로, 자원이 적은 범위는 범위 객체 하나만 할당한다.
+ *   그 이상은 추가 배열에 보관한다. 생성자에 예상 자원 수를 주면 추가 배열을 미리 만들고, 부족할 때만 늘린다.
+ * - 해제 중 발생한 예외는 첫 예외를 기준으로, 이후 예외만 addSuppressed 로 추가한다.
+ * - close() 후에는 비어 있는 상태로 돌아가므로 다시 사용할 수 있다. (추가 배열도 유지된다)
+ *   자원이 많은 요청 처리기는 범위를 필드로 두고 재사용하면 할당이 없다. 이때 범위를 중첩해 사용하지 않아야 한다.
+ *
+ * <pre>
+ * try(ResourceScope scope = new ResourceScope()) {
+ *     scope.register(...);
+ * }
+ * </pre>
+ * @author Sangjun, Park
+ *
+ */
+public class ResourceScope implements AutoCloseable {
+
+	private static final int INLINE_SLOTS = 4;
+
+	private AutoCloseable slot0;
+	private AutoCloseable slot1;
+	private AutoCloseable slot2;
+	private AutoCloseable slot3;
+	private AutoCloseable[] overflow;
+	private int size;
+
+	public ResourceScope() {
+	}
+
+	/**
+	 * @param expectedSize 예상 자원 수. 4개를 넘으면 추가 배열을 미리 만든다.
+	 */
+	public ResourceScope(int expectedSize) {
+		if(expectedSize < 1) {
+			throw new IllegalArgumentException("expectedSize must be positive: " + expectedSize);
+		}
+		if(expectedSize > INLINE_SLOTS) {
+			this.overflow = new AutoCloseable[expectedSize - INLINE_SLOTS];
+		}
+	}
+
+	/**
+	 * 자원을 등록하고, 등록한 자원을 그대로 반환한다.
+	 * try-with-resources 와 동일하게 null 은 무시한다.
+	 * @param resource
+	 * @return resource
+	 */
+	public <T extends AutoCloseable> T register(T resource) {
+		if(resource == null) {
+			return null;
+		}
+		switch(this.size) {
+		case 0:
+			this.slot0 = resource;
+			break;
+		case 1:
+			this.slot1 = resource;
+			break;
+		case 2:
+			this.slot2 = resource;
+			break;
+		case 3:
+			this.slot3 = resource;
+			break;
+		default:
+			addOverflow(resource);
+			break;
+		}
+		this.size++;
+		return resource;
+	}
+
+	private void addOverflow(AutoCloseable resource) {
+		int index = this.size - INLINE_SLOTS;
+		if(this.overflow == null) {
+			this.overflow = new AutoCloseable[INLINE_SLOTS];
+		} else if(index == this.overflow.length) {
+			this.overflow = Arrays.copyOf(this.overflow, index << 1);
+		}
+		this.overflow[index] = resource;
+	}
+
+	/**
+	 * 등록된 자원 수
+	 * @return
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * 등록된 자원을 역순으로 모두 해제하고, 비어 있는 상태로 돌아간다.
+	 * - 자원 해제에 실패하더라도 나머지 자원은 계속 해제한다.
+	 * - 처음 발생한 예외를 던지며, 이후 예외는 suppressed 로 추가된다.
+	 * - 처음 발생한 예외가 IOException, RuntimeException, Error 가 아닌 checked 예외이면 IOException 으로 감싸서 던진다.
+	 *   InterruptedException 이면 interrupt 상태를 복원하고 InterruptedIOException 으로 감싼다.
+	 * @throws IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		Throwable primary = null;
+		for(int i = this.size - INLINE_SLOTS - 1; i >= 0; i--) {
+			AutoCloseable resource = this.overflow[i];
+			this.overflow[i] = null;
+			primary = close(resource, primary);
+		}
+		if(this.size > 3) {
+			AutoCloseable resource = this.slot3;
+			this.slot3 = null;
+			primary = close(resource, primary);
+		}
+		if(this.size > 2) {
+			AutoCloseable resource = this.slot2;
+			this.slot2 = null;
+			primary = close(resource, primary);
+		}
+		if(this.size > 1) {
+			AutoCloseable resource = this.slot1;
+			this.slot1 = null;
+			primary = close(resource, primary);
+		}
+		if(this.size > 0) {
+			AutoCloseable resource = this.slot0;
+			this.slot0 = null;
+			primary = close(resource, primary);
+		}
+		this.size = 0;
+
+		if(primary == null) {
+			return;
+		}
+		if(primary instanceof IOException) {
+			throw (IOException) primary;
+		}
+		if(primary instanceof RuntimeException) {
+			throw (RuntimeException) primary;
+		}
+		if(primary instanceof Error) {
+			throw (Error) primary;
+		}
+		if(primary instanceof InterruptedException) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException interrupted = new InterruptedIOException(primary.getMessage());
+			interrupted.initCause(primary);
+			throw interrupted;
+		}
+		throw new IOException(primary);
+	}
+
+	/**
+	 * @return 처음 발생한 예외. 이번 해제가 처음 실패한 것이면 그 예외
+	 */
+	private static Throwable close(AutoCloseable resource, Throwable primary) {
+		try {
+			resource.close();
+		} catch(Throwable t) {
+			if(primary == null) {
+				return t;
+			}
+			primary.addSuppressed(t);
+		}
+		return primary;
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.libedi.new_java_feature.java7;
+
+/**
+ * 자원 획득 함수형 인터페이스
+ * - OldResource.getResource(), NewResource.getResource() 처럼 예외를 던지는 자원 생성 메서드를 메서드 레퍼런스로 사용할 수 있다.
+ * @author Sangjun, Park
+ *
+ * @param <T>
+ */
+@FunctionalInterface
+public interface ResourceSupplier<T extends AutoCloseable> {
+	T get() throws Exception;
+}
@@ -0,0 +1,15 @@
+package com.libedi.new_java_feature.java8;
+
+import lombok.Data;
+
+/**
+ * 주소 모델
+ * @author Sangjun, Park
+ *
+ */
+@Data
+public class Address {
+	private String street;
+	private String city;
+	private String zipcode;
+}
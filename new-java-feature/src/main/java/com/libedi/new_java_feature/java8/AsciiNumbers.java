@@ -0,0 +1,299 @@
+package com.libedi.new_java_feature.java8;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 객체를 만들지 않는 정수 파서
+ * - Integer::parseInt 는 필드마다 String 을 만들고, Function&lt;String, Integer&gt; 로 쓰면 결과도 boxing 된다.
+ * - byte[] 범위나 CharSequence 범위에서 바로 int/long 을 파싱한다.
+ * - byte[] 는 8자리씩 long 하나에 담아 한 번에 검사/변환한다. (SWAR : SIMD Within A Register)
+ * - 형식 오류와 overflow 는 Integer.parseInt() 와 같이 NumberFormatException 을 던진다. (부호 '+', '-' 와 앞자리 0 허용)
+ * @author Sangjun, Park
+ *
+ */
+public final class AsciiNumbers {
+
+	/** Integer::parseInt 대신 사용할 수 있는 함수 (boxing 없음) */
+	public static final ToIntFunction<CharSequence> PARSE_INT = AsciiNumbers::parseInt;
+	/** Long::parseLong 대신 사용할 수 있는 함수 (boxing 없음) */
+	public static final ToLongFunction<CharSequence> PARSE_LONG = AsciiNumbers::parseLong;
+
+	/** long 의 최대 자릿수 */
+	private static final int MAX_LONG_DIGITS = 19;
+	/** Long.MAX_VALUE / 10 */
+	private static final long LONG_HIGH_LIMIT = Long.MAX_VALUE / 10;
+	/** int 의 최대 자릿수 */
+	private static final int MAX_INT_DIGITS = 10;
+
+	/**
+	 * byte[] 범위를 int 로 변환하는 함수
+	 */
+	@FunctionalInterface
+	public static interface ByteRangeToIntFunction {
+		int applyAsInt(byte[] bytes, int from, int to);
+	}
+
+	/**
+	 * byte[] 범위를 long 으로 변환하는 함수
+	 */
+	@FunctionalInterface
+	public static interface ByteRangeToLongFunction {
+		long applyAsLong(byte[] bytes, int from, int to);
+	}
+
+	private AsciiNumbers() {
+	}
+
+	public static int parseInt(byte[] bytes) {
+		if(bytes == null) {
+			throw new NumberFormatException("null");
+		}
+		return parseInt(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * bytes[from, to) 를 int 로 변환
+	 * @param bytes ASCII 숫자
+	 * @param from 시작 위치 (포함)
+	 * @param to 끝 위치 (제외)
+	 * @return
+	 * @throws NumberFormatException 형식 오류 또는 overflow
+	 */
+	public static int parseInt(byte[] bytes, int from, int to) {
+		if(bytes == null) {
+			throw new NumberFormatException("null");
+		}
+		int i = from;
+		boolean negative = false;
+		if(i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+			negative = bytes[i++] == '-';
+		}
+		if(i == to) {
+			// 빈 문자열, 부호만 있는 경우
+			throw formatException(bytes, from, to);
+		}
+		i = skipZeros(bytes, i, to);
+		if(to - i > MAX_INT_DIGITS) {
+			throw formatException(bytes, from, to);
+		}
+		long magnitude = digits(bytes, i, to);
+		if(magnitude < 0 || magnitude > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+			throw formatException(bytes, from, to);
+		}
+		return (int) (negative ? -magnitude : magnitude);
+	}
+
+	public static long parseLong(byte[] bytes) {
+		if(bytes == null) {
+			throw new NumberFormatException("null");
+		}
+		return parseLong(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * bytes[from, to) 를 long 으로 변환
+	 * @param bytes ASCII 숫자
+	 * @param from 시작 위치 (포함)
+	 * @param to 끝 위치 (제외)
+	 * @return
+	 * @throws NumberFormatException 형식 오류 또는 overflow
+	 */
+	public static long parseLong(byte[] bytes, int from, int to) {
+		if(bytes == null) {
+			throw new NumberFormatException("null");
+		}
+		int i = from;
+		boolean negative = false;
+		if(i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+			negative = bytes[i++] == '-';
+		}
+		if(i == to) {
+			throw formatException(bytes, from, to);
+		}
+		i = skipZeros(bytes, i, to);
+		if(to - i > MAX_LONG_DIGITS) {
+			throw formatException(bytes, from, to);
+		}
+		if(to - i < MAX_LONG_DIGITS) {
+			// 18자리 이하는 overflow 가 없다.
+			long magnitude = digits(bytes, i, to);
+			if(magnitude < 0) {
+				throw formatException(bytes, from, to);
+			}
+			return negative ? -magnitude : magnitude;
+		}
+		long high = digits(bytes, i, to - 1);
+		int last = bytes[to - 1] - '0';
+		if(high < 0 || last < 0 || last > 9) {
+			throw formatException(bytes, from, to);
+		}
+		// high * 10 + last 가 범위 안인지 검사. 음수는 Long.MIN_VALUE 까지 허용.
+		if(high > LONG_HIGH_LIMIT || (high == LONG_HIGH_LIMIT && last > (negative ? 8 : 7))) {
+			throw formatException(bytes, from, to);
+		}
+		return negative ? -high * 10 - last : high * 10 + last;
+	}
+
+	public static int parseInt(CharSequence text) {
+		if(text == null) {
+			throw new NumberFormatException("null");
+		}
+		return parseInt(text, 0, text.length());
+	}
+
+	/**
+	 * text[from, to) 를 int 로 변환
+	 * @param text
+	 * @param from 시작 위치 (포함)
+	 * @param to 끝 위치 (제외)
+	 * @return
+	 * @throws NumberFormatException 형식 오류 또는 overflow
+	 */
+	public static int parseInt(CharSequence text, int from, int to) {
+		long value = parseSigned(text, from, to, MAX_INT_DIGITS);
+		if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw formatException(text, from, to);
+		}
+		return (int) value;
+	}
+
+	public static long parseLong(CharSequence text) {
+		if(text == null) {
+			throw new NumberFormatException("null");
+		}
+		return parseLong(text, 0, text.length());
+	}
+
+	/**
+	 * text[from, to) 를 long 으로 변환
+	 * @param text
+	 * @param from 시작 위치 (포함)
+	 * @param to 끝 위치 (제외)
+	 * @return
+	 * @throws NumberFormatException 형식 오류 또는 overflow
+	 */
+	public static long parseLong(CharSequence text, int from, int to) {
+		return parseSigned(text, from, to, MAX_LONG_DIGITS);
+	}
+
+	/**
+	 * 음수로 누적하여 Long.MIN_VALUE 까지 표현한다. (Long.parseLong 과 같은 방식)
+	 */
+	private static long parseSigned(CharSequence text, int from, int to, int maxDigits) {
+		if(text == null) {
+			throw new NumberFormatException("null");
+		}
+		int i = from;
+		boolean negative = false;
+		if(i < to) {
+			char first = text.charAt(i);
+			if(first == '-' || first == '+') {
+				negative = first == '-';
+				i++;
+			}
+		}
+		if(i == to) {
+			throw formatException(text, from, to);
+		}
+		while(i < to - 1 && text.charAt(i) == '0') {
+			i++;
+		}
+		if(to - i > maxDigits) {
+			throw formatException(text, from, to);
+		}
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multiplyLimit = limit / 10;
+		long result = 0;
+		for(; i < to; i++) {
+			int digit = text.charAt(i) - '0';
+			if(digit < 0 || digit > 9 || result < multiplyLimit) {
+				throw formatException(text, from, to);
+			}
+			result *= 10;
+			if(result < limit + digit) {
+				throw formatException(text, from, to);
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	/**
+	 * 마지막 한 자리는 남기고 앞자리 0 을 건너뛴다.
+	 */
+	private static int skipZeros(byte[] bytes, int from, int to) {
+		int i = from;
+		while(i < to - 1 && bytes[i] == '0') {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * 18자리 이하의 숫자를 변환한다. 숫자가 아닌 문자가 있으면 -1.
+	 */
+	private static long digits(byte[] bytes, int from, int to) {
+		long result = 0;
+		int i = from;
+		// 8자리씩 변환
+		for(; to - i >= 8; i += 8) {
+			long chunk = load8(bytes, i);
+			if(!isEightDigits(chunk)) {
+				return -1;
+			}
+			result = result * 100_000_000L + eightDigits(chunk);
+		}
+		for(; i < to; i++) {
+			int digit = bytes[i] - '0';
+			if(digit < 0 || digit > 9) {
+				return -1;
+			}
+			result = result * 10 + digit;
+		}
+		return result;
+	}
+
+	/**
+	 * bytes[i] 가 최하위 byte 가 되도록 8 byte 를 long 에 담는다. (little-endian)
+	 */
+	private static long load8(byte[] bytes, int i) {
+		return (bytes[i] & 0xFFL)
+				| (bytes[i + 1] & 0xFFL) << 8
+				| (bytes[i + 2] & 0xFFL) << 16
+				| (bytes[i + 3] & 0xFFL) << 24
+				| (bytes[i + 4] & 0xFFL) << 32
+				| (bytes[i + 5] & 0xFFL) << 40
+				| (bytes[i + 6] & 0xFFL) << 48
+				| (bytes[i + 7] & 0xFFL) << 56;
+	}
+
+	/**
+	 * 8 byte 가 모두 '0' ~ '9' 인지 검사
+	 * - 상위 4bit 가 모두 3 이고, 6 을 더해도 상위 4bit 가 3 이면 숫자이다.
+	 */
+	private static boolean isEightDigits(long chunk) {
+		return (((chunk & 0xF0F0F0F0F0F0F0F0L) | (((chunk + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4))
+				== 0x3333333333333333L);
+	}
+
+	/**
+	 * 8자리 숫자 변환. 곱셈 3번으로 2자리, 4자리, 8자리 순서로 합친다.
+	 * - 2561 = 10 * 2^8 + 1, 6553601 = 100 * 2^16 + 1, 42949672960001 = 10000 * 2^32 + 1
+	 */
+	private static long eightDigits(long chunk) {
+		long value = ((chunk & 0x0F0F0F0F0F0F0F0FL) * 2561) >>> 8;
+		value = ((value & 0x00FF00FF00FF00FFL) * 6553601) >>> 16;
+		return ((value & 0x0000FFFF0000FFFFL) * 42949672960001L) >>> 32;
+	}
+
+	private static NumberFormatException formatException(byte[] bytes, int from, int to) {
+		return new NumberFormatException("For input string: \"" + new String(bytes, from, to - from, StandardCharsets.ISO_8859_1) + "\"");
+	}
+
+	private static NumberFormatException formatException(CharSequence text, int from, int to) {
+		return new NumberFormatException("For input string: \"" + text.subSequence(from, to) + "\"");
+	}
+
+}
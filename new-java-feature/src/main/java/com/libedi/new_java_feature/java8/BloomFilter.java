@@ -0,0 +1,68 @@
+package com.libedi.new_java_feature.java8;
+
+/**
+ * Bloom filter
+ * - mightContain() 이 false 이면 추가된 적이 없다. true 이면 추가되었을 수도 있다. (오탐 가능)
+ * - 64bit hash 하나에서 double hashing 으로 k 개의 위치를 만든다.
+ * @author Sangjun, Park
+ *
+ */
+final class BloomFilter {
+
+	private final long[] bits;
+	private final long bitCount;
+	private final int hashCount;
+
+	/**
+	 * @param expectedItems 예상 원소 수
+	 * @param falsePositiveRate 오탐률 (0 ~ 1)
+	 */
+	BloomFilter(long expectedItems, double falsePositiveRate) {
+		if(expectedItems <= 0) {
+			throw new IllegalArgumentException("expectedItems must be positive: " + expectedItems);
+		}
+		if(!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+			throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1: " + falsePositiveRate);
+		}
+		double ln2 = Math.log(2);
+		long bitCount = Math.max(64, (long) Math.ceil(-expectedItems * Math.log(falsePositiveRate) / (ln2 * ln2)));
+		int words = (int) Math.min(Integer.MAX_VALUE - 8, (bitCount + 63) >>> 6);
+		this.bits = new long[words];
+		this.bitCount = (long) words << 6;
+		this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / expectedItems * ln2));
+	}
+
+	void add(long hash) {
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for(int i = 1; i <= this.hashCount; i++) {
+			long index = Math.floorMod(h1 + (long) i * h2, this.bitCount);
+			this.bits[(int) (index >>> 6)] |= 1L << index;
+		}
+	}
+
+	boolean mightContain(long hash) {
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for(int i = 1; i <= this.hashCount; i++) {
+			long index = Math.floorMod(h1 + (long) i * h2, this.bitCount);
+			if((this.bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 같은 크기의 filter 를 합친다. (병렬 stream 의 combiner)
+	 */
+	void addAll(BloomFilter other) {
+		if(other.bits.length != this.bits.length || other.hashCount != this.hashCount) {
+			throw new IllegalArgumentException("BloomFilter size mismatch");
+		}
+		for(int i = 0; i < this.bits.length; i++) {
+			this.bits[i] |= other.bits[i];
+		}
+	}
+
+}
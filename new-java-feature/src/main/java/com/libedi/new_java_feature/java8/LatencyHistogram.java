@@ -0,0 +1,234 @@
+package com.libedi.new_java_feature.java8;
+
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.readVarLong;
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.writeVarLong;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 로그 구간 histogram (HdrHistogram 방식)
+ * - 2의 거듭제곱 구간마다 2^subBucketBits 개의 하위 구간으로 나눈다.
+ *   상대 오차는 1 / 2^subBucketBits 이하이다. (기본 5bit : 약 3%)
+ * - 0 ~ Long.MAX_VALUE 를 고정 크기 배열로 기록하므로, 같은 설정의 histogram 은 손실 없이 합칠 수 있다.
+ * - thread-safe 하지 않다. 여러 thread 에서 기록할 때는 LatencyRecorder 를 사용한다.
+ * - encode() 는 0 이 아닌 구간만 varint 로 기록한다.
+ * @author Sangjun, Park
+ *
+ */
+public class LatencyHistogram {
+
+	public static final int DEFAULT_SUB_BUCKET_BITS = 5;
+
+	private final int subBucketBits;
+	private final long[] counts;
+	private long totalCount;
+
+	public LatencyHistogram() {
+		this(DEFAULT_SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * @param subBucketBits 1 ~ 10. 클수록 정확하고 메모리를 많이 쓴다. (배열 크기 (64 - bits) * 2^bits)
+	 */
+	public LatencyHistogram(int subBucketBits) {
+		if(subBucketBits < 1 || subBucketBits > 10) {
+			throw new IllegalArgumentException("subBucketBits must be between 1 and 10: " + subBucketBits);
+		}
+		this.subBucketBits = subBucketBits;
+		this.counts = new long[(64 - subBucketBits) << subBucketBits];
+	}
+
+	public int getSubBucketBits() {
+		return this.subBucketBits;
+	}
+
+	public void record(long value) {
+		this.counts[index(value)]++;
+		this.totalCount++;
+	}
+
+	public void record(long value, long count) {
+		if(count < 0) {
+			throw new IllegalArgumentException("count must not be negative: " + count);
+		}
+		this.counts[index(value)] += count;
+		this.totalCount += count;
+	}
+
+	/**
+	 * 다른 histogram 의 기록을 더한다. (손실 없음)
+	 * @param other 같은 subBucketBits 의 histogram
+	 */
+	public void add(LatencyHistogram other) {
+		if(other.subBucketBits != this.subBucketBits) {
+			throw new IllegalArgumentException("subBucketBits mismatch: " + this.subBucketBits + ", " + other.subBucketBits);
+		}
+		for(int i = 0; i < this.counts.length; i++) {
+			this.counts[i] += other.counts[i];
+		}
+		this.totalCount += other.totalCount;
+	}
+
+	public void reset() {
+		Arrays.fill(this.counts, 0L);
+		this.totalCount = 0;
+	}
+
+	public LatencyHistogram copy() {
+		LatencyHistogram copy = new LatencyHistogram(this.subBucketBits);
+		copy.add(this);
+		return copy;
+	}
+
+	public long getTotalCount() {
+		return this.totalCount;
+	}
+
+	/**
+	 * @param percentile 0 ~ 100
+	 * @return 기록된 값의 percentile% 이상이 이 값 이하이다. (구간의 최대값)
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if(percentile < 0 || percentile > 100 || Double.isNaN(percentile)) {
+			throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+		}
+		if(this.totalCount == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * this.totalCount));
+		long cumulative = 0;
+		for(int i = 0; i < this.counts.length; i++) {
+			cumulative += this.counts[i];
+			if(cumulative >= target) {
+				return highestEquivalentValue(i);
+			}
+		}
+		return getMaxValue();
+	}
+
+	/**
+	 * @return 가장 작은 기록값이 속한 구간의 최소값. 기록이 없으면 0
+	 */
+	public long getMinValue() {
+		for(int i = 0; i < this.counts.length; i++) {
+			if(this.counts[i] != 0) {
+				return lowestEquivalentValue(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return 가장 큰 기록값이 속한 구간의 최대값. 기록이 없으면 0
+	 */
+	public long getMaxValue() {
+		for(int i = this.counts.length - 1; i >= 0; i--) {
+			if(this.counts[i] != 0) {
+				return highestEquivalentValue(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return 구간 중간값으로 계산한 평균
+	 */
+	public double getMean() {
+		if(this.totalCount == 0) {
+			return 0;
+		}
+		double sum = 0;
+		for(int i = 0; i < this.counts.length; i++) {
+			if(this.counts[i] != 0) {
+				sum += this.counts[i] * (lowestEquivalentValue(i) / 2.0 + highestEquivalentValue(i) / 2.0);
+			}
+		}
+		return sum / this.totalCount;
+	}
+
+	/**
+	 * 형식 : subBucketBits (1 byte) | 0 이 아닌 구간 수 | (앞 구간과의 index 차이, 개수) ... (모두 varint)
+	 * @param buffer
+	 */
+	public void encode(ByteBuffer buffer) {
+		int nonZero = 0;
+		for(long count : this.counts) {
+			if(count != 0) {
+				nonZero++;
+			}
+		}
+		buffer.put((byte) this.subBucketBits);
+		writeVarLong(buffer, nonZero);
+		int previous = -1;
+		for(int i = 0; i < this.counts.length; i++) {
+			if(this.counts[i] != 0) {
+				writeVarLong(buffer, i - previous - 1);
+				writeVarLong(buffer, this.counts[i]);
+				previous = i;
+			}
+		}
+	}
+
+	public static LatencyHistogram decode(ByteBuffer buffer) {
+		LatencyHistogram histogram = new LatencyHistogram(buffer.get());
+		long nonZero = readVarLong(buffer);
+		if(nonZero < 0 || nonZero > histogram.counts.length) {
+			throw new IllegalArgumentException("Invalid bucket count: " + nonZero);
+		}
+		long index = -1;
+		for(long i = 0; i < nonZero; i++) {
+			index += readVarLong(buffer) + 1;
+			long count = readVarLong(buffer);
+			if(index < 0 || index >= histogram.counts.length || count < 0) {
+				throw new IllegalArgumentException("Invalid bucket: " + index + ", count: " + count);
+			}
+			histogram.counts[(int) index] = count;
+			histogram.totalCount += count;
+		}
+		return histogram;
+	}
+
+	/**
+	 * 구간 번호
+	 * - 구간 b 는 [2^(b+bits), 2^(b+bits+1)) 의 값을 2^b 간격으로 나눈다. (b = 0 은 [0, 2^(bits+1)) 를 1 간격으로)
+	 */
+	int index(long value) {
+		if(value < 0) {
+			throw new IllegalArgumentException("value must not be negative: " + value);
+		}
+		int bucket = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - this.subBucketBits);
+		return (bucket << this.subBucketBits) + (int) (value >>> bucket);
+	}
+
+	long lowestEquivalentValue(int index) {
+		int bucket = Math.max(0, (index >>> this.subBucketBits) - 1);
+		return (long) (index - (bucket << this.subBucketBits)) << bucket;
+	}
+
+	long highestEquivalentValue(int index) {
+		int bucket = Math.max(0, (index >>> this.subBucketBits) - 1);
+		return lowestEquivalentValue(index) + (1L << bucket) - 1;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(!(obj instanceof LatencyHistogram)) {
+			return false;
+		}
+		LatencyHistogram other = (LatencyHistogram) obj;
+		return this.subBucketBits == other.subBucketBits && Arrays.equals(this.counts, other.counts);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.counts) * 31 + this.subBucketBits;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram(count=" + this.totalCount + ", p50=" + getValueAtPercentile(50)
+				+ ", p99=" + getValueAtPercentile(99) + ", p99.9=" + getValueAtPercentile(99.9) + ", max=" + getMaxValue() + ")";
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.libedi.new_java_feature.java8;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 여러 thread 에서 지연 시간을 기록하는 recorder
+ * - thread 마다 자기 histogram 에 기록하므로, 기록하는 thread 끼리 경합하지 않는다. (lock 없음)
+ * - intervalHistogram() 은 기록 중인 thread 를 멈추지 않고, thread 마다 active / inactive histogram 을
+ *   교체한 뒤 교체 전에 시작한 기록이 끝나기를 기다린다. (HdrHistogram 의 WriterReaderPhaser 방식)
+ *   따라서 모든 기록은 정확히 한 번의 interval 에 포함된다.
+ * - 종료된 thread 의 기록도 다음 interval 에 포함된다.
+ * - thread 마다 slot (histogram 2 개) 을 하나씩 둔다. slot 은 thread 를 약한 참조로만 가리키므로 thread 를 붙잡지 않는다.
+ *   종료된 thread 의 slot 은 다음 intervalHistogram() 에서 기록을 옮긴 뒤 목록에서 빠진다.
+ *   따라서 thread 가 계속 바뀌어도 slot 은 "살아 있는 thread + 마지막 interval 이후 종료된 thread" 만큼만 남는다.
+ *
+ * <pre>
+ * long start = System.nanoTime();
+ * resource.use();
+ * recorder.recordSince(start);
+ * ...
+ * LatencyHistogram interval = recorder.intervalHistogram();
+ * long p999 = interval.getValueAtPercentile(99.9);
+ * </pre>
+ * @author Sangjun, Park
+ *
+ */
+public class LatencyRecorder {
+
+	private final int subBucketBits;
+	private final List<Slot> slots = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<Slot> currentSlot = ThreadLocal.withInitial(this::register);
+
+	public LatencyRecorder() {
+		this(LatencyHistogram.DEFAULT_SUB_BUCKET_BITS);
+	}
+
+	public LatencyRecorder(int subBucketBits) {
+		if(subBucketBits < 1 || subBucketBits > 10) {
+			throw new IllegalArgumentException("subBucketBits must be between 1 and 10: " + subBucketBits);
+		}
+		this.subBucketBits = subBucketBits;
+	}
+
+	/**
+	 * @param nanos 음수이면 0 으로 기록한다. (System.nanoTime() 차이는 음수가 될 수 없지만, 방어적으로)
+	 */
+	public void record(long nanos) {
+		this.currentSlot.get().record(Math.max(0, nanos));
+	}
+
+	/**
+	 * @param startNanos System.nanoTime() 으로 얻은 시작 시각
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * 마지막 호출 이후의 기록
+	 * @return 새 histogram
+	 */
+	public LatencyHistogram intervalHistogram() {
+		return intervalHistogram(new LatencyHistogram(this.subBucketBits));
+	}
+
+	/**
+	 * 마지막 호출 이후의 기록을 target 에 담는다. (target 은 reset 된다)
+	 * - 읽는 쪽끼리는 동기화하지만, 기록하는 thread 는 기다리지 않는다.
+	 * @param target 재사용할 histogram
+	 * @return target
+	 */
+	public synchronized LatencyHistogram intervalHistogram(LatencyHistogram target) {
+		target.reset();
+		for(Slot slot : this.slots) {
+			// 종료된 thread 는 더 기록하지 않으므로, 옮기기 전에 확인했다면 옮긴 뒤 버려도 된다.
+			boolean terminated = slot.isTerminated();
+			slot.drainInto(target);
+			if(terminated) {
+				this.slots.remove(slot);
+			}
+		}
+		return target;
+	}
+
+	/**
+	 * @return 기록을 위해 유지하고 있는 slot 수
+	 */
+	int getSlotCount() {
+		return this.slots.size();
+	}
+
+	private Slot register() {
+		Slot slot = new Slot(this.subBucketBits, Thread.currentThread());
+		this.slots.add(slot);
+		return slot;
+	}
+
+	/**
+	 * thread 하나의 기록
+	 * - 기록 : startEpoch 증가 -&gt; active 에 기록 -&gt; 현재 phase 의 endEpoch 증가
+	 * - 교체 : active 교체 -&gt; startEpoch 를 다음 phase 로 바꾸고, 이전 phase 의 endEpoch 가 따라올 때까지 대기
+	 * - startEpoch 의 부호가 phase 이다. (양수 : even, 음수 : odd)
+	 */
+	private static final class Slot {
+		private final AtomicLong startEpoch = new AtomicLong(0);
+		private final AtomicLong evenEndEpoch = new AtomicLong(0);
+		private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+		private final WeakReference<Thread> owner;
+		private volatile LatencyHistogram active;
+		/** 읽는 쪽만 사용한다. */
+		private LatencyHistogram inactive;
+
+		Slot(int subBucketBits, Thread owner) {
+			this.owner = new WeakReference<>(owner);
+			this.active = new LatencyHistogram(subBucketBits);
+			this.inactive = new LatencyHistogram(subBucketBits);
+		}
+
+		boolean isTerminated() {
+			Thread thread = this.owner.get();
+			return thread == null || thread.getState() == Thread.State.TERMINATED;
+		}
+
+		void record(long nanos) {
+			long epoch = this.startEpoch.getAndIncrement();
+			try {
+				this.active.record(nanos);
+			} finally {
+				(epoch < 0 ? this.oddEndEpoch : this.evenEndEpoch).getAndIncrement();
+			}
+		}
+
+		void drainInto(LatencyHistogram target) {
+			LatencyHistogram previous = this.active;
+			this.inactive.reset();
+			this.active = this.inactive;
+
+			boolean nextPhaseIsEven = this.startEpoch.get() < 0;
+			long initialEpoch = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+			(nextPhaseIsEven ? this.evenEndEpoch : this.oddEndEpoch).set(initialEpoch);
+			long startEpochAtFlip = this.startEpoch.getAndSet(initialEpoch);
+			AtomicLong previousEndEpoch = nextPhaseIsEven ? this.oddEndEpoch : this.evenEndEpoch;
+			while(previousEndEpoch.get() != startEpochAtFlip) {
+				// 교체 전에 시작한 기록은 histogram 하나를 갱신하는 짧은 시간 안에 끝난다.
+				Thread.yield();
+			}
+
+			target.add(previous);
+			this.inactive = previous;
+		}
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.libedi.new_java_feature.java8;
+
+import lombok.Data;
+
+/**
+ * 회원 모델
+ * @author Sangjun, Park
+ *
+ */
+@Data
+public class Member {
+	private Long id;
+	private String name;
+	private Address address;
+}
@@ -0,0 +1,756 @@
+package com.libedi.new_java_feature.java8;
+
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.readSignedVarLong;
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.readVarLong;
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.writeSignedVarLong;
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.writeVarLong;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 필드 기반 binary codec
+ * - 클래스마다 한 번, reflection 으로 필드 목록(schema)을 만들어 재사용한다. (Lombok @Data 모델 대상)
+ * - 형식 : null bitmap (참조 타입 필드마다 1bit) | 필드 값 (클래스 계층 순, 같은 클래스 안에서는 이름 순)
+ * - 정수는 zigzag varint, 문자열은 UTF-8, Date 는 epoch millisecond, java.time 타입은 SqlTimeCodec 형식.
+ * - 지원하지 않는 필드 타입이 있으면 codec 생성 시 IllegalArgumentException.
+ * - 기록할 때는 필드의 getter (getX / isX, Lombok @Data 가 만든 접근자) 로 값을 읽는다. getter 가 없으면 필드를 직접 읽는다.
+ *   그래서 getter 를 재정의한 하위 클래스 (OrderSpliterator 의 지연 파싱 Order 등) 도 선언된 클래스의 schema 로 기록된다.
+ * - 읽을 때는 항상 선언된 클래스의 객체를 만들어 필드에 직접 쓴다. readInto() 의 대상은 선언된 클래스와 정확히 같아야 한다.
+ * - 객체 그래프는 tree 로 기록한다. (같은 객체를 두 번 참조하면 두 번 기록되고, 순환 참조는 지원하지 않는다.)
+ * - readInto() 는 기존 객체와 하위 객체, 값이 같은 String / wrapper 를 재사용한다.
+ * - Throwable 은 message 와 stack trace 를 기록하고, (String) 생성자로 만든다. (cause, suppressed 는 기록하지 않는다.)
+ *   readInto() 로 기존 Throwable 에 읽을 때는 message 를 detailMessage 필드에 직접 쓴다.
+ * - schema 식별값은 기록하지 않는다. 기록한 쪽과 읽는 쪽의 클래스 정의가 같아야 한다.
+ *
+ * <pre>
+ * ObjectCodec&lt;Order&gt; codec = ObjectCodec.of(Order.class);
+ * codec.write(buffer, order);
+ * buffer.flip();
+ * codec.readInto(buffer, cachedOrder);
+ * </pre>
+ * @author Sangjun, Park
+ *
+ * @param <T>
+ */
+public final class ObjectCodec<T> {
+
+	private static final ClassValue<ObjectCodec<?>> CODECS = new ClassValue<ObjectCodec<?>>() {
+		@Override
+		protected ObjectCodec<?> computeValue(Class<?> type) {
+			return new ObjectCodec<>(type);
+		}
+	};
+
+	private static final Map<Class<?>, ValueCodec<?>> VALUE_CODECS = new HashMap<>();
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private final Class<T> type;
+	private final Constructor<T> constructor;
+	private final boolean throwable;
+	private final Slot[] slots;
+	private final int bitCount;
+	private final int bitmapSize;
+
+	@SuppressWarnings("unchecked")
+	public static <T> ObjectCodec<T> of(Class<T> type) {
+		return (ObjectCodec<T>) CODECS.get(type);
+	}
+
+	private ObjectCodec(Class<T> type) {
+		if(type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isArray() || type.isPrimitive()) {
+			throw new IllegalArgumentException("Not a concrete class: " + type.getName());
+		}
+		this.type = type;
+		this.throwable = Throwable.class.isAssignableFrom(type);
+
+		List<Slot> slots = new ArrayList<>();
+		if(this.throwable) {
+			slots.add(new MessageSlot());
+			slots.add(new StackTraceSlot());
+		}
+		for(Class<?> current : hierarchy(type)) {
+			Field[] fields = current.getDeclaredFields();
+			Arrays.sort(fields, Comparator.comparing(Field::getName));
+			for(Field field : fields) {
+				int modifiers = field.getModifiers();
+				if(Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+					continue;
+				}
+				field.setAccessible(true);
+				MethodHandle getter = getter(field);
+				slots.add(field.getType().isPrimitive() ? new PrimitiveSlot(field, getter) : new ReferenceSlot(field, getter, valueCodec(field)));
+			}
+		}
+		int bits = 0;
+		for(Slot slot : slots) {
+			if(slot.nullable()) {
+				slot.bit = bits++;
+			}
+		}
+		this.slots = slots.toArray(new Slot[slots.size()]);
+		this.bitCount = bits;
+		this.bitmapSize = (bits + 7) >>> 3;
+		this.constructor = constructor(type, this.throwable);
+	}
+
+	public Class<T> getType() {
+		return this.type;
+	}
+
+	/**
+	 * @param buffer
+	 * @param value null 불가. (null 여부는 상위 객체의 bitmap 에 기록된다.) 하위 클래스이면 getter 로 읽은 값을 기록한다.
+	 * @throws BufferOverflowException 버퍼가 부족하면. 버퍼의 position 은 기록 중간 위치가 된다.
+	 */
+	public void write(ByteBuffer buffer, T value) {
+		if(value == null) {
+			throw new NullPointerException("value");
+		}
+		int bitmapPosition = buffer.position();
+		if(buffer.remaining() < this.bitmapSize) {
+			throw new BufferOverflowException();
+		}
+		buffer.position(bitmapPosition + this.bitmapSize);
+		int bits = 0;
+		try {
+			for(Slot slot : this.slots) {
+				boolean present = slot.write(buffer, value);
+				if(slot.bit >= 0) {
+					if(present) {
+						bits |= 1 << (slot.bit & 7);
+					}
+					if((slot.bit & 7) == 7) {
+						buffer.put(bitmapPosition + (slot.bit >>> 3), (byte) bits);
+						bits = 0;
+					}
+				}
+			}
+		} catch(RuntimeException | Error e) {
+			throw e;
+		} catch(Throwable e) {
+			throw new IllegalStateException(e);
+		}
+		if((this.bitCount & 7) != 0) {
+			buffer.put(bitmapPosition + this.bitmapSize - 1, (byte) bits);
+		}
+	}
+
+	public T read(ByteBuffer buffer) {
+		return readInto(buffer, null);
+	}
+
+	/**
+	 * 기존 객체에 읽는다.
+	 * - 하위 객체가 이미 있으면 그 객체에 읽고, 값이 같은 String / wrapper / Date 는 그대로 둔다.
+	 * @param buffer
+	 * @param target null 이면 새로 만든다. 하위 클래스 객체는 필드가 getter 와 다를 수 있으므로 허용하지 않는다.
+	 * @return target 또는 새 객체
+	 * @throws BufferUnderflowException 데이터가 부족하면
+	 */
+	public T readInto(ByteBuffer buffer, T target) {
+		if(target != null && target.getClass() != this.type) {
+			throw new IllegalArgumentException("target must be exactly " + this.type.getName() + ": " + target.getClass().getName());
+		}
+		int bitmapPosition = buffer.position();
+		if(buffer.remaining() < this.bitmapSize) {
+			throw new BufferUnderflowException();
+		}
+		buffer.position(bitmapPosition + this.bitmapSize);
+		try {
+			T instance = target;
+			int start = 0;
+			if(this.throwable && instance == null) {
+				String message = present(buffer, bitmapPosition, this.slots[0].bit) ? STRING.read(buffer, null) : null;
+				instance = this.constructor.newInstance(message);
+				start = 1;
+			} else if(instance == null) {
+				instance = this.constructor.newInstance();
+			}
+			for(int i = start; i < this.slots.length; i++) {
+				Slot slot = this.slots[i];
+				slot.read(buffer, instance, slot.bit < 0 || present(buffer, bitmapPosition, slot.bit));
+			}
+			return instance;
+		} catch(InvocationTargetException e) {
+			throw new IllegalStateException("Failed to create " + this.type.getName(), e.getCause());
+		} catch(InstantiationException | IllegalAccessException e) {
+			throw new IllegalStateException("Failed to create " + this.type.getName(), e);
+		}
+	}
+
+	private static boolean present(ByteBuffer buffer, int bitmapPosition, int bit) {
+		return (buffer.get(bitmapPosition + (bit >>> 3)) & (1 << (bit & 7))) != 0;
+	}
+
+	private static List<Class<?>> hierarchy(Class<?> type) {
+		List<Class<?>> classes = new ArrayList<>();
+		Class<?> stop = Throwable.class.isAssignableFrom(type) ? Throwable.class : Object.class;
+		for(Class<?> current = type; current != stop; current = current.getSuperclass()) {
+			classes.add(0, current);
+		}
+		return classes;
+	}
+
+	private static <T> Constructor<T> constructor(Class<T> type, boolean throwable) {
+		try {
+			Constructor<T> constructor = throwable ? type.getDeclaredConstructor(String.class) : type.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return constructor;
+		} catch(NoSuchMethodException e) {
+			throw new IllegalArgumentException(type.getName() + " must declare a "
+					+ (throwable ? "(String)" : "no-arg") + " constructor", e);
+		}
+	}
+
+	/**
+	 * getX / isX 접근자. 없으면 필드를 직접 읽는다.
+	 * - 가상 호출이므로 하위 클래스가 재정의한 getter 가 호출된다.
+	 */
+	private static MethodHandle getter(Field field) {
+		String property = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+		String[] prefixes = field.getType() == boolean.class ? new String[] { "is", "get" } : new String[] { "get" };
+		try {
+			for(String prefix : prefixes) {
+				try {
+					Method method = field.getDeclaringClass().getDeclaredMethod(prefix + property);
+					if(!Modifier.isStatic(method.getModifiers()) && method.getReturnType() == field.getType()) {
+						method.setAccessible(true);
+						return LOOKUP.unreflect(method);
+					}
+				} catch(NoSuchMethodException e) {
+					// 다음 접근자
+				}
+			}
+			return LOOKUP.unreflectGetter(field);
+		} catch(IllegalAccessException e) {
+			throw new IllegalArgumentException("Cannot access " + field, e);
+		}
+	}
+
+	private static ValueCodec<?> valueCodec(Field field) {
+		Class<?> fieldType = field.getType();
+		ValueCodec<?> codec = VALUE_CODECS.get(fieldType);
+		if(codec != null) {
+			return codec;
+		}
+		if(fieldType.isEnum()) {
+			return new EnumCodec<>(fieldType.getEnumConstants());
+		}
+		if(fieldType.isInterface() || fieldType.isArray() || Modifier.isAbstract(fieldType.getModifiers())
+				|| fieldType.getName().startsWith("java.")) {
+			throw new IllegalArgumentException("Unsupported field type: " + field);
+		}
+		return new NestedCodec<>(fieldType);
+	}
+
+	/*
+	 * 필드
+	 */
+	private abstract static class Slot {
+		/** null bitmap 의 bit 위치. null 이 없는 필드는 -1 */
+		int bit = -1;
+
+		abstract boolean nullable();
+
+		/**
+		 * @return 값이 있으면 true
+		 */
+		abstract boolean write(ByteBuffer buffer, Object owner) throws Throwable;
+
+		abstract void read(ByteBuffer buffer, Object owner, boolean present) throws IllegalAccessException;
+	}
+
+	private static final class PrimitiveSlot extends Slot {
+		private final Field field;
+		private final Class<?> type;
+		/** (Object)long, (Object)boolean, (Object)float, (Object)double 중 하나로 맞춘 getter */
+		private final MethodHandle getter;
+
+		PrimitiveSlot(Field field, MethodHandle getter) {
+			this.field = field;
+			this.type = field.getType();
+			Class<?> returnType = this.type == boolean.class || this.type == float.class || this.type == double.class ? this.type : long.class;
+			this.getter = getter.asType(MethodType.methodType(returnType, Object.class));
+		}
+
+		@Override
+		boolean nullable() {
+			return false;
+		}
+
+		@Override
+		boolean write(ByteBuffer buffer, Object owner) throws Throwable {
+			if(this.type == boolean.class) {
+				buffer.put((boolean) this.getter.invokeExact(owner) ? (byte) 1 : (byte) 0);
+			} else if(this.type == double.class) {
+				buffer.putLong(Double.doubleToRawLongBits((double) this.getter.invokeExact(owner)));
+			} else if(this.type == float.class) {
+				buffer.putInt(Float.floatToRawIntBits((float) this.getter.invokeExact(owner)));
+			} else {
+				long value = (long) this.getter.invokeExact(owner);
+				if(this.type == char.class) {
+					writeVarLong(buffer, value);
+				} else if(this.type == byte.class) {
+					buffer.put((byte) value);
+				} else {
+					writeSignedVarLong(buffer, value);
+				}
+			}
+			return true;
+		}
+
+		@Override
+		void read(ByteBuffer buffer, Object owner, boolean present) throws IllegalAccessException {
+			if(this.type == long.class) {
+				this.field.setLong(owner, readSignedVarLong(buffer));
+			} else if(this.type == int.class) {
+				this.field.setInt(owner, (int) readSignedVarLong(buffer));
+			} else if(this.type == short.class) {
+				this.field.setShort(owner, (short) readSignedVarLong(buffer));
+			} else if(this.type == char.class) {
+				this.field.setChar(owner, (char) readVarLong(buffer));
+			} else if(this.type == byte.class) {
+				this.field.setByte(owner, buffer.get());
+			} else if(this.type == boolean.class) {
+				this.field.setBoolean(owner, buffer.get() != 0);
+			} else if(this.type == double.class) {
+				this.field.setDouble(owner, Double.longBitsToDouble(buffer.getLong()));
+			} else {
+				this.field.setFloat(owner, Float.intBitsToFloat(buffer.getInt()));
+			}
+		}
+	}
+
+	private static final class ReferenceSlot extends Slot {
+		private final Field field;
+		/** (Object)Object 로 맞춘 getter */
+		private final MethodHandle getter;
+		@SuppressWarnings("rawtypes")
+		private final ValueCodec codec;
+
+		ReferenceSlot(Field field, MethodHandle getter, ValueCodec<?> codec) {
+			this.field = field;
+			this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
+			this.codec = codec;
+		}
+
+		@Override
+		boolean nullable() {
+			return true;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		boolean write(ByteBuffer buffer, Object owner) throws Throwable {
+			Object value = (Object) this.getter.invokeExact(owner);
+			if(value == null) {
+				return false;
+			}
+			this.codec.write(buffer, value);
+			return true;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		void read(ByteBuffer buffer, Object owner, boolean present) throws IllegalAccessException {
+			Object existing = this.field.get(owner);
+			Object value = present ? this.codec.read(buffer, existing) : null;
+			if(value != existing) {
+				this.field.set(owner, value);
+			}
+		}
+	}
+
+	private static final class MessageSlot extends Slot {
+		private static final Field DETAIL_MESSAGE;
+
+		static {
+			try {
+				DETAIL_MESSAGE = Throwable.class.getDeclaredField("detailMessage");
+				DETAIL_MESSAGE.setAccessible(true);
+			} catch(NoSuchFieldException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		@Override
+		boolean nullable() {
+			return true;
+		}
+
+		@Override
+		boolean write(ByteBuffer buffer, Object owner) {
+			String message = ((Throwable) owner).getMessage();
+			if(message == null) {
+				return false;
+			}
+			STRING.write(buffer, message);
+			return true;
+		}
+
+		@Override
+		void read(ByteBuffer buffer, Object owner, boolean present) throws IllegalAccessException {
+			// 새 객체는 생성자로 전달하므로 ObjectCodec.readInto() 에서 읽는다. 여기서는 기존 객체에 읽는 경우.
+			String existing = (String) DETAIL_MESSAGE.get(owner);
+			String message = present ? STRING.read(buffer, existing) : null;
+			if(message != existing) {
+				DETAIL_MESSAGE.set(owner, message);
+			}
+		}
+	}
+
+	private static final class StackTraceSlot extends Slot {
+		@Override
+		boolean nullable() {
+			return false;
+		}
+
+		@Override
+		boolean write(ByteBuffer buffer, Object owner) {
+			StackTraceElement[] stackTrace = ((Throwable) owner).getStackTrace();
+			writeVarLong(buffer, stackTrace.length);
+			for(StackTraceElement element : stackTrace) {
+				STRING.write(buffer, element.getClassName());
+				STRING.write(buffer, element.getMethodName());
+				if(element.getFileName() == null) {
+					buffer.put((byte) 0);
+				} else {
+					buffer.put((byte) 1);
+					STRING.write(buffer, element.getFileName());
+				}
+				writeSignedVarLong(buffer, element.getLineNumber());
+			}
+			return true;
+		}
+
+		@Override
+		void read(ByteBuffer buffer, Object owner, boolean present) {
+			StackTraceElement[] stackTrace = new StackTraceElement[length(buffer)];
+			for(int i = 0; i < stackTrace.length; i++) {
+				String className = STRING.read(buffer, null);
+				String methodName = STRING.read(buffer, null);
+				String fileName = buffer.get() != 0 ? STRING.read(buffer, null) : null;
+				stackTrace[i] = new StackTraceElement(className, methodName, fileName, (int) readSignedVarLong(buffer));
+			}
+			((Throwable) owner).setStackTrace(stackTrace);
+		}
+	}
+
+	/*
+	 * 참조 타입 값
+	 */
+	private static interface ValueCodec<V> {
+		void write(ByteBuffer buffer, V value);
+
+		/**
+		 * @param existing 기존 값. 같은 값이면 재사용할 수 있다.
+		 */
+		V read(ByteBuffer buffer, V existing);
+	}
+
+	private static final ValueCodec<String> STRING = new ValueCodec<String>() {
+		@Override
+		public void write(ByteBuffer buffer, String value) {
+			int length = value.length();
+			boolean ascii = true;
+			for(int i = 0; i < length && ascii; i++) {
+				ascii = value.charAt(i) < 0x80;
+			}
+			if(ascii) {
+				writeVarLong(buffer, length);
+				if(buffer.remaining() < length) {
+					throw new BufferOverflowException();
+				}
+				for(int i = 0; i < length; i++) {
+					buffer.put((byte) value.charAt(i));
+				}
+			} else {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				writeVarLong(buffer, bytes.length);
+				buffer.put(bytes);
+			}
+		}
+
+		@Override
+		public String read(ByteBuffer buffer, String existing) {
+			int length = length(buffer);
+			if(buffer.remaining() < length) {
+				throw new BufferUnderflowException();
+			}
+			int position = buffer.position();
+			buffer.position(position + length);
+			if(existing != null && existing.length() == length && sameAscii(buffer, position, existing)) {
+				return existing;
+			}
+			if(buffer.hasArray()) {
+				return new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+			}
+			byte[] bytes = new byte[length];
+			for(int i = 0; i < length; i++) {
+				bytes[i] = buffer.get(position + i);
+			}
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private boolean sameAscii(ByteBuffer buffer, int position, String existing) {
+			for(int i = 0; i < existing.length(); i++) {
+				// 0x80 이상의 byte 는 음수이므로 어떤 char 와도 같지 않다.
+				if(buffer.get(position + i) != existing.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	};
+
+	static {
+		VALUE_CODECS.put(String.class, STRING);
+		VALUE_CODECS.put(Long.class, new ValueCodec<Long>() {
+			@Override
+			public void write(ByteBuffer buffer, Long value) {
+				writeSignedVarLong(buffer, value);
+			}
+
+			@Override
+			public Long read(ByteBuffer buffer, Long existing) {
+				long value = readSignedVarLong(buffer);
+				return existing != null && existing == value ? existing : Long.valueOf(value);
+			}
+		});
+		VALUE_CODECS.put(Integer.class, new ValueCodec<Integer>() {
+			@Override
+			public void write(ByteBuffer buffer, Integer value) {
+				writeSignedVarLong(buffer, value);
+			}
+
+			@Override
+			public Integer read(ByteBuffer buffer, Integer existing) {
+				int value = (int) readSignedVarLong(buffer);
+				return existing != null && existing == value ? existing : Integer.valueOf(value);
+			}
+		});
+		VALUE_CODECS.put(Short.class, new ValueCodec<Short>() {
+			@Override
+			public void write(ByteBuffer buffer, Short value) {
+				writeSignedVarLong(buffer, value);
+			}
+
+			@Override
+			public Short read(ByteBuffer buffer, Short existing) {
+				return (short) readSignedVarLong(buffer);
+			}
+		});
+		VALUE_CODECS.put(Byte.class, new ValueCodec<Byte>() {
+			@Override
+			public void write(ByteBuffer buffer, Byte value) {
+				buffer.put(value);
+			}
+
+			@Override
+			public Byte read(ByteBuffer buffer, Byte existing) {
+				return buffer.get();
+			}
+		});
+		VALUE_CODECS.put(Character.class, new ValueCodec<Character>() {
+			@Override
+			public void write(ByteBuffer buffer, Character value) {
+				writeVarLong(buffer, value);
+			}
+
+			@Override
+			public Character read(ByteBuffer buffer, Character existing) {
+				return (char) readVarLong(buffer);
+			}
+		});
+		VALUE_CODECS.put(Boolean.class, new ValueCodec<Boolean>() {
+			@Override
+			public void write(ByteBuffer buffer, Boolean value) {
+				buffer.put(value ? (byte) 1 : (byte) 0);
+			}
+
+			@Override
+			public Boolean read(ByteBuffer buffer, Boolean existing) {
+				return buffer.get() != 0;
+			}
+		});
+		VALUE_CODECS.put(Double.class, new ValueCodec<Double>() {
+			@Override
+			public void write(ByteBuffer buffer, Double value) {
+				buffer.putLong(Double.doubleToRawLongBits(value));
+			}
+
+			@Override
+			public Double read(ByteBuffer buffer, Double existing) {
+				return Double.longBitsToDouble(buffer.getLong());
+			}
+		});
+		VALUE_CODECS.put(Float.class, new ValueCodec<Float>() {
+			@Override
+			public void write(ByteBuffer buffer, Float value) {
+				buffer.putInt(Float.floatToRawIntBits(value));
+			}
+
+			@Override
+			public Float read(ByteBuffer buffer, Float existing) {
+				return Float.intBitsToFloat(buffer.getInt());
+			}
+		});
+		VALUE_CODECS.put(Date.class, new ValueCodec<Date>() {
+			@Override
+			public void write(ByteBuffer buffer, Date value) {
+				writeSignedVarLong(buffer, value.getTime());
+			}
+
+			@Override
+			public Date read(ByteBuffer buffer, Date existing) {
+				long time = readSignedVarLong(buffer);
+				if(existing != null && existing.getClass() == Date.class) {
+					// Date 는 변경 가능하므로 기존 객체에 값을 넣는다.
+					existing.setTime(time);
+					return existing;
+				}
+				return new Date(time);
+			}
+		});
+		VALUE_CODECS.put(LocalDate.class, new ValueCodec<LocalDate>() {
+			@Override
+			public void write(ByteBuffer buffer, LocalDate value) {
+				SqlTimeCodec.writeDate(buffer, value);
+			}
+
+			@Override
+			public LocalDate read(ByteBuffer buffer, LocalDate existing) {
+				return SqlTimeCodec.readDate(buffer);
+			}
+		});
+		VALUE_CODECS.put(LocalTime.class, new ValueCodec<LocalTime>() {
+			@Override
+			public void write(ByteBuffer buffer, LocalTime value) {
+				SqlTimeCodec.writeTime(buffer, value);
+			}
+
+			@Override
+			public LocalTime read(ByteBuffer buffer, LocalTime existing) {
+				return SqlTimeCodec.readTime(buffer);
+			}
+		});
+		VALUE_CODECS.put(LocalDateTime.class, new ValueCodec<LocalDateTime>() {
+			@Override
+			public void write(ByteBuffer buffer, LocalDateTime value) {
+				SqlTimeCodec.writeTimestamp(buffer, value);
+			}
+
+			@Override
+			public LocalDateTime read(ByteBuffer buffer, LocalDateTime existing) {
+				return SqlTimeCodec.readTimestamp(buffer);
+			}
+		});
+		VALUE_CODECS.put(OffsetTime.class, new ValueCodec<OffsetTime>() {
+			@Override
+			public void write(ByteBuffer buffer, OffsetTime value) {
+				SqlTimeCodec.writeTimeWithTimezone(buffer, value);
+			}
+
+			@Override
+			public OffsetTime read(ByteBuffer buffer, OffsetTime existing) {
+				return SqlTimeCodec.readTimeWithTimezone(buffer);
+			}
+		});
+		VALUE_CODECS.put(OffsetDateTime.class, new ValueCodec<OffsetDateTime>() {
+			@Override
+			public void write(ByteBuffer buffer, OffsetDateTime value) {
+				SqlTimeCodec.writeTimestampWithTimezone(buffer, value);
+			}
+
+			@Override
+			public OffsetDateTime read(ByteBuffer buffer, OffsetDateTime existing) {
+				return SqlTimeCodec.readTimestampWithTimezone(buffer);
+			}
+		});
+	}
+
+	private static final class EnumCodec<E> implements ValueCodec<E> {
+		private final E[] constants;
+
+		EnumCodec(E[] constants) {
+			this.constants = constants;
+		}
+
+		@Override
+		public void write(ByteBuffer buffer, E value) {
+			writeVarLong(buffer, ((Enum<?>) value).ordinal());
+		}
+
+		@Override
+		public E read(ByteBuffer buffer, E existing) {
+			return this.constants[length(buffer)];
+		}
+	}
+
+	/**
+	 * 하위 객체. 자기 자신을 필드로 가진 타입도 있으므로 codec 은 처음 사용할 때 찾는다.
+	 */
+	private static final class NestedCodec<V> implements ValueCodec<V> {
+		private final Class<V> type;
+		private ObjectCodec<V> codec;
+
+		NestedCodec(Class<V> type) {
+			this.type = type;
+		}
+
+		private ObjectCodec<V> codec() {
+			ObjectCodec<V> codec = this.codec;
+			if(codec == null) {
+				codec = ObjectCodec.of(this.type);
+				this.codec = codec;
+			}
+			return codec;
+		}
+
+		@Override
+		public void write(ByteBuffer buffer, V value) {
+			// 하위 클래스도 선언된 타입의 schema 로 getter 를 통해 기록한다.
+			codec().write(buffer, value);
+		}
+
+		@Override
+		public V read(ByteBuffer buffer, V existing) {
+			ObjectCodec<V> codec = codec();
+			// 하위 클래스 객체는 재사용하지 않고 선언된 타입으로 새로 만든다.
+			boolean reusable = existing != null && existing.getClass() == this.type;
+			return codec.readInto(buffer, reusable ? existing : null);
+		}
+	}
+
+	private static int length(ByteBuffer buffer) {
+		long length = readVarLong(buffer);
+		if(length < 0 || length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid length: " + length);
+		}
+		return (int) length;
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.libedi.new_java_feature.java8;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 재사용 출력 버퍼
+ * - 호출마다 버퍼를 새로 만들지 않고, 부족할 때만 두 배로 늘린다.
+ * - 반환된 버퍼는 다음 호출 전까지만 유효하다. thread-safe 하지 않으므로 thread 마다 사용한다.
+ * - current() 는 thread 마다 하나씩 두는 writer 를 반환한다. 늘어난 버퍼는 그 thread 에서 계속 재사용된다.
+ * @author Sangjun, Park
+ *
+ */
+public class ObjectWriter {
+
+	private static final int DEFAULT_CAPACITY = 4096;
+	private static final ThreadLocal<ObjectWriter> CURRENT = ThreadLocal.withInitial(ObjectWriter::new);
+
+	private ByteBuffer buffer;
+
+	public ObjectWriter() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public ObjectWriter(int initialCapacity) {
+		if(initialCapacity <= 0) {
+			throw new IllegalArgumentException("initialCapacity must be positive: " + initialCapacity);
+		}
+		this.buffer = ByteBuffer.allocate(initialCapacity);
+	}
+
+	/**
+	 * 현재 thread 의 writer
+	 * - 반환된 버퍼를 다 읽기 전에 같은 thread 에서 다시 기록하면 덮어쓴다. (중첩 호출 금지)
+	 * - 버퍼는 thread 가 끝날 때까지 유지된다. 큰 객체를 한 번 기록하면 그 크기만큼 계속 차지한다.
+	 */
+	public static ObjectWriter current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * @param codec
+	 * @param value
+	 * @return 읽기 가능한(flip 된) 버퍼
+	 */
+	public <T> ByteBuffer write(ObjectCodec<T> codec, T value) {
+		while(true) {
+			this.buffer.clear();
+			try {
+				codec.write(this.buffer, value);
+				this.buffer.flip();
+				return this.buffer;
+			} catch(BufferOverflowException e) {
+				grow();
+			}
+		}
+	}
+
+	/**
+	 * 여러 객체를 이어서 기록한다. 읽을 때는 같은 개수만큼 ObjectCodec.read() 를 호출한다.
+	 * @param codec
+	 * @param values
+	 * @return 읽기 가능한(flip 된) 버퍼
+	 */
+	public <T> ByteBuffer writeAll(ObjectCodec<T> codec, Iterable<? extends T> values) {
+		while(true) {
+			this.buffer.clear();
+			try {
+				for(T value : values) {
+					codec.write(this.buffer, value);
+				}
+				this.buffer.flip();
+				return this.buffer;
+			} catch(BufferOverflowException e) {
+				grow();
+			}
+		}
+	}
+
+	private void grow() {
+		if(this.buffer.capacity() > Integer.MAX_VALUE / 2) {
+			throw new OutOfMemoryError("ObjectWriter buffer is too large");
+		}
+		this.buffer = ByteBuffer.allocate(this.buffer.capacity() * 2);
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.libedi.new_java_feature.java8;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * 주문 모델
+ * @author Sangjun, Park
+ *
+ */
+@Data
+public class Order {
+	private Long id;
+	private Date date;
+	private Member member;
+}
@@ -0,0 +1,63 @@
+package com.libedi.new_java_feature.java8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.libedi.new_java_feature.jfr.StreamPipelineEvent;
+
+/**
+ * 구분자 파일에서 주문을 읽는다.
+ * - 파일 전체를 메모리에 올리지 않고, OrderSpliterator 로 필요한 만큼만 읽는 Stream 을 만든다.
+ * - 반환된 Stream 은 파일을 열고 있으므로, try-with-resources 로 닫아야 한다.
+ * - JFR 이 기록 중이면 Stream 을 닫을 때 읽은 주문 수와 함께 StreamPipelineEvent 를 기록한다.
+ *
+ * <pre>
+ * try(Stream&lt;Order&gt; orders = OrderLoader.load(path)) {
+ *     Optional&lt;Order&gt; order = orders.filter(o -&gt; o.getId() == 100L).findFirst();
+ * }
+ * </pre>
+ * @author Sangjun, Park
+ *
+ */
+public final class OrderLoader {
+
+	/** StreamPipelineEvent 의 파이프라인 이름 */
+	public static final String PIPELINE = "OrderLoader.load";
+
+	private OrderLoader() {
+	}
+
+	public static Stream<Order> load(Path path) throws IOException {
+		return load(path, OrderSpliterator.DEFAULT_DELIMITER, false);
+	}
+
+	/**
+	 * @param path 주문 파일. 형식은 OrderSpliterator 참조
+	 * @param delimiter 필드 구분자 (ASCII)
+	 * @param parallel 병렬 스트림 여부. 병렬이면 레코드 경계로 파일을 나누어 동시에 파싱한다.
+	 * @return
+	 * @throws IOException
+	 */
+	public static Stream<Order> load(Path path, byte delimiter, boolean parallel) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return StreamPipelineEvent.track(PIPELINE, StreamSupport.stream(new OrderSpliterator(channel, delimiter), parallel)
+					.onClose(() -> {
+						try {
+							channel.close();
+						} catch(IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}));
+		} catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+}
@@ -0,0 +1,323 @@
+package com.libedi.new_java_feature.java8;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * long key 정렬
+ * - Comparator.comparing(Order::getDate) 는 비교할 때마다 객체를 따라가고 unboxing 한다.
+ *   여기서는 key 를 long[] 로 한 번만 꺼내고, (key, 원래 위치) 쌍을 정렬한 뒤 목록을 재배치한다.
+ * - 정렬 방법
+ *   - key 범위와 위치를 long 하나에 담을 수 있으면 (key - min) &lt;&lt; bits | 위치 를 Arrays.parallelSort() 로 정렬.
+ *   - 아니면 병렬 LSD radix sort. (8bit 씩, 모든 key 가 같은 byte 는 건너뛴다)
+ * - 모두 안정 정렬이다. (key 가 같으면 원래 순서 유지)
+ * - Order 의 id / date 가 null 이면 정렬 방향과 관계없이 뒤에 원래 순서대로 둔다. (Comparator.nullsLast 와 동일)
+ * - top() 은 크기 k 의 heap 으로 앞의 k 개만 구한다. (전체를 정렬하지 않는다)
+ * @author Sangjun, Park
+ *
+ */
+public final class OrderSort {
+
+	/** 이보다 작으면 radix sort 를 한 thread 에서 수행한다. */
+	static final int PARALLEL_THRESHOLD = 1 << 16;
+	private static final int MIN_CHUNK_SIZE = 1 << 14;
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1 << RADIX_BITS;
+
+	private static final ToLongFunction<Order> ID = Order::getId;
+	private static final ToLongFunction<Order> DATE = order -> order.getDate().getTime();
+	private static final Predicate<Order> HAS_ID = order -> order.getId() != null;
+	private static final Predicate<Order> HAS_DATE = order -> order.getDate() != null;
+
+	private OrderSort() {
+	}
+
+	public static void sortById(List<Order> orders, boolean descending) {
+		sort(orders, ID, HAS_ID, descending);
+	}
+
+	public static void sortByDate(List<Order> orders, boolean descending) {
+		sort(orders, DATE, HAS_DATE, descending);
+	}
+
+	public static List<Order> topById(List<Order> orders, int k, boolean descending) {
+		return top(orders, ID, HAS_ID, k, descending);
+	}
+
+	public static List<Order> topByDate(List<Order> orders, int k, boolean descending) {
+		return top(orders, DATE, HAS_DATE, k, descending);
+	}
+
+	/**
+	 * @param list 변경 가능한 목록
+	 * @param key null 을 반환하지 않는 key
+	 * @param descending
+	 */
+	public static <T> void sort(List<T> list, ToLongFunction<? super T> key, boolean descending) {
+		sort(list, key, t -> true, descending);
+	}
+
+	/**
+	 * 정렬했을 때 앞의 k 개. 같은 key 는 원래 순서를 유지한다.
+	 * @param list
+	 * @param key null 을 반환하지 않는 key
+	 * @param k
+	 * @param descending
+	 * @return 새 목록
+	 */
+	public static <T> List<T> top(List<? extends T> list, ToLongFunction<? super T> key, int k, boolean descending) {
+		return top(list, key, t -> true, k, descending);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void sort(List<T> list, ToLongFunction<? super T> key, Predicate<? super T> hasKey, boolean descending) {
+		Object[] elements = list.toArray();
+		int n = elements.length;
+		if(n < 2) {
+			return;
+		}
+		long[] keys = new long[n];
+		int[] positions = new int[n];
+		int[] missing = new int[n];
+		int count = 0;
+		int missingCount = 0;
+		for(int i = 0; i < n; i++) {
+			T element = (T) elements[i];
+			if(hasKey.test(element)) {
+				long value = key.applyAsLong(element);
+				// ~ 는 long 의 순서를 정확히 뒤집는다.
+				keys[count] = descending ? ~value : value;
+				positions[count++] = i;
+			} else {
+				missing[missingCount++] = i;
+			}
+		}
+
+		int[] order = sortPositions(keys, positions, count);
+
+		ListIterator<T> iterator = list.listIterator();
+		for(int i = 0; i < count; i++) {
+			iterator.next();
+			iterator.set((T) elements[order[i]]);
+		}
+		for(int i = 0; i < missingCount; i++) {
+			iterator.next();
+			iterator.set((T) elements[missing[i]]);
+		}
+	}
+
+	/**
+	 * @return key 순서의 원래 위치
+	 */
+	static int[] sortPositions(long[] keys, int[] positions, int count) {
+		if(count < 2) {
+			return positions;
+		}
+		long min = Long.MAX_VALUE;
+		long max = Long.MIN_VALUE;
+		for(int i = 0; i < count; i++) {
+			min = Math.min(min, keys[i]);
+			max = Math.max(max, keys[i]);
+		}
+		int positionBits = 32 - Integer.numberOfLeadingZeros(count - 1);
+		// 부호 bit 를 쓰지 않도록 63bit 안에 담는다.
+		if(Long.compareUnsigned(max - min, 1L << (63 - positionBits)) < 0) {
+			long[] packed = new long[count];
+			for(int i = 0; i < count; i++) {
+				// 같은 key 는 위치로 정렬되므로 안정 정렬이 된다.
+				packed[i] = (keys[i] - min) << positionBits | i;
+			}
+			Arrays.parallelSort(packed);
+			int mask = (1 << positionBits) - 1;
+			int[] order = new int[count];
+			for(int i = 0; i < count; i++) {
+				order[i] = positions[(int) (packed[i] & mask)];
+			}
+			return order;
+		}
+		for(int i = 0; i < count; i++) {
+			// 부호 bit 를 뒤집으면 unsigned byte 순서가 signed 순서와 같아진다.
+			keys[i] ^= Long.MIN_VALUE;
+		}
+		return radixSort(keys, positions, count);
+	}
+
+	/**
+	 * 병렬 LSD radix sort
+	 * - 구간(chunk)마다 digit 개수를 세고, digit 순 &gt; 구간 순으로 위치를 정해 구간마다 동시에 옮긴다.
+	 * - 구간과 구간 안의 순서를 지키므로 안정 정렬이다.
+	 */
+	private static int[] radixSort(long[] keys, int[] positions, int count) {
+		long varying = 0;
+		for(int i = 1; i < count; i++) {
+			varying |= keys[i] ^ keys[0];
+		}
+		int chunks = count < PARALLEL_THRESHOLD ? 1
+				: Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, count / MIN_CHUNK_SIZE));
+		int chunkSize = (count + chunks - 1) / chunks;
+
+		long[] sourceKeys = keys;
+		int[] sourcePositions = positions;
+		long[] targetKeys = new long[count];
+		int[] targetPositions = new int[count];
+		int[][] offsets = new int[chunks][RADIX];
+		for(int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+			if(((varying >>> shift) & (RADIX - 1)) == 0) {
+				continue;
+			}
+			final int digitShift = shift;
+			final long[] fromKeys = sourceKeys;
+			final int[] fromPositions = sourcePositions;
+			final long[] toKeys = targetKeys;
+			final int[] toPositions = targetPositions;
+
+			forEachChunk(chunks, chunk -> {
+				int[] histogram = offsets[chunk];
+				Arrays.fill(histogram, 0);
+				for(int i = chunk * chunkSize, end = Math.min(count, i + chunkSize); i < end; i++) {
+					histogram[(int) (fromKeys[i] >>> digitShift) & (RADIX - 1)]++;
+				}
+			});
+			int offset = 0;
+			for(int digit = 0; digit < RADIX; digit++) {
+				for(int chunk = 0; chunk < chunks; chunk++) {
+					int size = offsets[chunk][digit];
+					offsets[chunk][digit] = offset;
+					offset += size;
+				}
+			}
+			forEachChunk(chunks, chunk -> {
+				int[] next = offsets[chunk];
+				for(int i = chunk * chunkSize, end = Math.min(count, i + chunkSize); i < end; i++) {
+					int target = next[(int) (fromKeys[i] >>> digitShift) & (RADIX - 1)]++;
+					toKeys[target] = fromKeys[i];
+					toPositions[target] = fromPositions[i];
+				}
+			});
+
+			sourceKeys = toKeys;
+			sourcePositions = toPositions;
+			targetKeys = fromKeys;
+			targetPositions = fromPositions;
+		}
+		return sourcePositions;
+	}
+
+	@FunctionalInterface
+	private static interface ChunkTask {
+		void run(int chunk);
+	}
+
+	private static void forEachChunk(int chunks, ChunkTask task) {
+		if(chunks == 1) {
+			task.run(0);
+		} else {
+			IntStream.range(0, chunks).parallel().forEach(task::run);
+		}
+	}
+
+	/**
+	 * (key, 위치) 의 max heap 으로 가장 작은 k 개를 유지한다.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> top(List<? extends T> list, ToLongFunction<? super T> key, Predicate<? super T> hasKey,
+			int k, boolean descending) {
+		if(k < 0) {
+			throw new IllegalArgumentException("k must not be negative: " + k);
+		}
+		Object[] elements = list.toArray();
+		int capacity = Math.min(k, elements.length);
+		long[] heapKeys = new long[capacity];
+		int[] heapPositions = new int[capacity];
+		int size = 0;
+		List<T> missing = new ArrayList<>();
+		for(int i = 0; i < elements.length && capacity > 0; i++) {
+			T element = (T) elements[i];
+			if(!hasKey.test(element)) {
+				if(missing.size() < capacity) {
+					missing.add(element);
+				}
+				continue;
+			}
+			long value = key.applyAsLong(element);
+			value = descending ? ~value : value;
+			if(size < capacity) {
+				heapKeys[size] = value;
+				heapPositions[size] = i;
+				siftUp(heapKeys, heapPositions, size++);
+			} else if(value < heapKeys[0]) {
+				// 같은 key 는 먼저 나온 원소가 앞이므로 교체하지 않는다.
+				heapKeys[0] = value;
+				heapPositions[0] = i;
+				siftDown(heapKeys, heapPositions, size);
+			}
+		}
+
+		// heap 에서 가장 큰 원소부터 꺼내 뒤에서부터 채운다.
+		Object[] sorted = new Object[size];
+		for(int end = size; end > 0; end--) {
+			sorted[end - 1] = elements[heapPositions[0]];
+			swap(heapKeys, heapPositions, 0, end - 1);
+			siftDown(heapKeys, heapPositions, end - 1);
+		}
+		List<T> result = new ArrayList<>(capacity);
+		for(Object element : sorted) {
+			result.add((T) element);
+		}
+		for(int i = 0; result.size() < capacity && i < missing.size(); i++) {
+			result.add(missing.get(i));
+		}
+		return result;
+	}
+
+	private static boolean greater(long[] keys, int[] positions, int a, int b) {
+		return keys[a] > keys[b] || (keys[a] == keys[b] && positions[a] > positions[b]);
+	}
+
+	private static void siftUp(long[] keys, int[] positions, int index) {
+		while(index > 0) {
+			int parent = (index - 1) >>> 1;
+			if(!greater(keys, positions, index, parent)) {
+				return;
+			}
+			swap(keys, positions, index, parent);
+			index = parent;
+		}
+	}
+
+	private static void siftDown(long[] keys, int[] positions, int size) {
+		int index = 0;
+		while(true) {
+			int largest = index;
+			int left = 2 * index + 1;
+			int right = left + 1;
+			if(left < size && greater(keys, positions, left, largest)) {
+				largest = left;
+			}
+			if(right < size && greater(keys, positions, right, largest)) {
+				largest = right;
+			}
+			if(largest == index) {
+				return;
+			}
+			swap(keys, positions, index, largest);
+			index = largest;
+		}
+	}
+
+	private static void swap(long[] keys, int[] positions, int a, int b) {
+		long key = keys[a];
+		keys[a] = keys[b];
+		keys[b] = key;
+		int position = positions[a];
+		positions[a] = positions[b];
+		positions[b] = position;
+	}
+
+}
@@ -0,0 +1,327 @@
+package com.libedi.new_java_feature.java8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 구분자 파일의 주문 레코드를 읽는 Spliterator
+ * - 레코드 형식 (한 줄에 한 주문) : id|date(epoch millisecond)|memberId|memberName|street|city|zipcode
+ * - 빈 필드는 null. 회원 필드가 모두 비어 있으면 member 가 null, 주소 필드가 모두 비어 있으면 address 가 null.
+ * - 파일 위치 기준으로 분할하며, 각 분할은 시작 위치가 범위 안에 있는 레코드만 읽는다. (레코드 경계 분할)
+ * - 재사용하는 byte[] 버퍼로 필요한 만큼만 읽으므로, findFirst() 등은 남은 파일을 읽지 않는다.
+ * - id, date 만 바로 파싱하고, member 와 address 는 getter 를 처음 호출할 때 파싱한다.
+ * @author Sangjun, Park
+ *
+ */
+public class OrderSpliterator implements Spliterator<Order> {
+
+	public static final byte DEFAULT_DELIMITER = '|';
+
+	static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	static final long DEFAULT_MIN_SPLIT_SIZE = 1024 * 1024;
+	/** estimateSize() 에 사용하는 레코드 평균 크기 추정값 */
+	private static final int ESTIMATED_RECORD_SIZE = 64;
+	private static final int FIELD_COUNT = 7;
+	private static final int MEMBER_FIELD = 2;
+	private static final int ADDRESS_FIELD = 2;	// member 레코드 안에서의 위치
+
+	private final FileChannel channel;
+	private final byte delimiter;
+	private final long minSplitSize;
+	private final int[] fieldStarts = new int[FIELD_COUNT + 1];
+
+	private long end;
+	private boolean aligned;
+
+	private byte[] buffer;
+	private ByteBuffer byteBuffer;
+	/** buffer[0] 의 파일 위치 */
+	private long bufferPosition;
+	private int bufferStart;
+	private int bufferEnd;
+	private boolean eof;
+
+	public OrderSpliterator(FileChannel channel) throws IOException {
+		this(channel, DEFAULT_DELIMITER);
+	}
+
+	public OrderSpliterator(FileChannel channel, byte delimiter) throws IOException {
+		this(channel, 0, channel.size(), delimiter, DEFAULT_BUFFER_SIZE, DEFAULT_MIN_SPLIT_SIZE);
+	}
+
+	OrderSpliterator(FileChannel channel, long start, long end, byte delimiter, int bufferSize, long minSplitSize) {
+		this.channel = channel;
+		this.delimiter = delimiter;
+		this.minSplitSize = Math.max(minSplitSize, 1);
+		this.end = end;
+		this.aligned = start == 0;
+		this.buffer = new byte[Math.max(bufferSize, 16)];
+		this.byteBuffer = ByteBuffer.wrap(this.buffer);
+		// 정렬되지 않은 경우, 앞 레코드의 끝(개행)을 찾기 위해 한 byte 앞에서 읽는다.
+		this.bufferPosition = this.aligned ? start : start - 1;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Order> action) {
+		try {
+			if(!this.aligned) {
+				align();
+			}
+			while(this.bufferPosition + this.bufferStart < this.end) {
+				int lineEnd = nextLineEnd();
+				if(lineEnd < 0) {
+					return false;
+				}
+				int from = this.bufferStart;
+				this.bufferStart = Math.min(lineEnd + 1, this.bufferEnd);
+				int to = lineEnd > from && this.buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+				if(to > from) {
+					action.accept(parse(this.buffer, from, to));
+					return true;
+				}
+				// 빈 줄은 건너뛴다.
+			}
+			return false;
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public Spliterator<Order> trySplit() {
+		long current = this.bufferPosition + (this.aligned ? this.bufferStart : 0);
+		if(!this.aligned) {
+			current++;	// 분할 시작 위치
+		}
+		long remaining = this.end - current;
+		if(remaining < this.minSplitSize * 2) {
+			return null;
+		}
+		long mid = current + remaining / 2;
+		OrderSpliterator prefix = new OrderSpliterator(this.channel, current, mid, this.delimiter,
+				this.buffer.length, this.minSplitSize);
+		prefix.aligned = this.aligned || current == 0;
+
+		// 이 Spliterator 는 mid 부터 다시 읽는다.
+		this.aligned = false;
+		this.bufferPosition = mid - 1;
+		this.bufferStart = 0;
+		this.bufferEnd = 0;
+		this.eof = false;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return Math.max(this.end - this.bufferPosition - this.bufferStart, 0) / ESTIMATED_RECORD_SIZE + 1;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	/**
+	 * 분할 시작 위치가 레코드 중간이면, 다음 레코드 시작까지 건너뛴다.
+	 */
+	private void align() throws IOException {
+		this.aligned = true;
+		int lineEnd = nextLineEnd();
+		this.bufferStart = lineEnd < 0 ? this.bufferEnd : Math.min(lineEnd + 1, this.bufferEnd);
+	}
+
+	/**
+	 * bufferStart 부터 다음 개행 위치. 개행 없이 파일이 끝나면 bufferEnd, 남은 데이터가 없으면 -1.
+	 */
+	private int nextLineEnd() throws IOException {
+		int scanFrom = this.bufferStart;
+		while(true) {
+			for(int i = scanFrom; i < this.bufferEnd; i++) {
+				if(this.buffer[i] == '\n') {
+					return i;
+				}
+			}
+			if(this.eof) {
+				return this.bufferEnd > this.bufferStart ? this.bufferEnd : -1;
+			}
+			scanFrom = this.bufferEnd - this.bufferStart;
+			fill();
+		}
+	}
+
+	/**
+	 * 남은 데이터를 버퍼 앞으로 옮기고, 뒤를 채운다. 레코드가 버퍼보다 크면 버퍼를 늘린다.
+	 */
+	private void fill() throws IOException {
+		int remaining = this.bufferEnd - this.bufferStart;
+		if(this.bufferStart > 0) {
+			System.arraycopy(this.buffer, this.bufferStart, this.buffer, 0, remaining);
+			this.bufferPosition += this.bufferStart;
+			this.bufferStart = 0;
+			this.bufferEnd = remaining;
+		} else if(remaining == this.buffer.length) {
+			this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+			this.byteBuffer = ByteBuffer.wrap(this.buffer);
+		}
+		this.byteBuffer.limit(this.buffer.length).position(this.bufferEnd);
+		int read = this.channel.read(this.byteBuffer, this.bufferPosition + this.bufferEnd);
+		if(read < 0) {
+			this.eof = true;
+		} else {
+			this.bufferEnd += read;
+		}
+	}
+
+	private Order parse(byte[] bytes, int from, int to) {
+		int count = split(bytes, from, to, this.delimiter, this.fieldStarts);
+		if(count != FIELD_COUNT) {
+			throw new IllegalArgumentException("Invalid order record. expected " + FIELD_COUNT + " fields but " + count
+					+ ": " + new String(bytes, from, to - from, StandardCharsets.UTF_8));
+		}
+		int[] starts = this.fieldStarts;
+		LazyOrder order = new LazyOrder(this.delimiter);
+		order.setId(parseLong(bytes, starts[0], starts[1] - 1));
+		Long date = parseLong(bytes, starts[1], starts[2] - 1);
+		order.setDate(date == null ? null : new Date(date));
+		if(isBlank(bytes, starts[MEMBER_FIELD], to, this.delimiter)) {
+			order.setMember(null);
+		} else {
+			order.memberBytes = Arrays.copyOfRange(bytes, starts[MEMBER_FIELD], to);
+		}
+		return order;
+	}
+
+	/**
+	 * 필드 시작 위치를 starts 에 기록하고, 필드 수를 반환한다.
+	 * starts[필드 수] 에는 (끝 위치 + 1) 이 기록된다.
+	 */
+	static int split(byte[] bytes, int from, int to, byte delimiter, int[] starts) {
+		int count = 0;
+		starts[count++] = from;
+		for(int i = from; i < to; i++) {
+			if(bytes[i] == delimiter) {
+				if(count == starts.length - 1) {
+					return count + 1;	// 필드가 너무 많음
+				}
+				starts[count++] = i + 1;
+			}
+		}
+		starts[count] = to + 1;
+		return count;
+	}
+
+	static Long parseLong(byte[] bytes, int from, int to) {
+		return from >= to ? null : AsciiNumbers.parseLong(bytes, from, to);
+	}
+
+	static String decode(byte[] bytes, int from, int to) {
+		return from >= to ? null : new String(bytes, from, to - from, StandardCharsets.UTF_8);
+	}
+
+	static boolean isBlank(byte[] bytes, int from, int to, byte delimiter) {
+		for(int i = from; i < to; i++) {
+			if(bytes[i] != delimiter) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * member 를 처음 조회할 때 파싱하는 Order
+	 * - 여러 thread 가 같은 주문을 읽을 수 있으므로, 파싱은 한 번만 synchronized 안에서 하고
+	 *   결과를 저장한 뒤에 volatile 인 memberBytes 를 지운다.
+	 *   memberBytes 가 null 로 보이면 저장된 member 도 보인다. (파싱이 끝난 뒤에는 lock 없이 읽는다)
+	 */
+	private static class LazyOrder extends Order {
+
+		private final byte delimiter;
+		private volatile byte[] memberBytes;
+
+		LazyOrder(byte delimiter) {
+			this.delimiter = delimiter;
+		}
+
+		@Override
+		public Member getMember() {
+			if(this.memberBytes != null) {
+				synchronized(this) {
+					byte[] bytes = this.memberBytes;
+					if(bytes != null) {
+						super.setMember(parseMember(bytes));
+						this.memberBytes = null;
+					}
+				}
+			}
+			return super.getMember();
+		}
+
+		@Override
+		public synchronized void setMember(Member member) {
+			super.setMember(member);
+			this.memberBytes = null;
+		}
+
+		private Member parseMember(byte[] bytes) {
+			int[] starts = new int[6];
+			split(bytes, 0, bytes.length, this.delimiter, starts);
+			LazyMember member = new LazyMember();
+			member.setId(parseLong(bytes, starts[0], starts[1] - 1));
+			member.setName(decode(bytes, starts[1], starts[2] - 1));
+			if(isBlank(bytes, starts[ADDRESS_FIELD], bytes.length, this.delimiter)) {
+				member.setAddress(null);
+			} else {
+				member.delimiter = this.delimiter;
+				member.addressBytes = Arrays.copyOfRange(bytes, starts[ADDRESS_FIELD], bytes.length);
+			}
+			return member;
+		}
+	}
+
+	/**
+	 * address 를 처음 조회할 때 파싱하는 Member (LazyOrder 와 같은 방식)
+	 */
+	private static class LazyMember extends Member {
+
+		private byte delimiter;
+		private volatile byte[] addressBytes;
+
+		@Override
+		public Address getAddress() {
+			if(this.addressBytes != null) {
+				synchronized(this) {
+					byte[] bytes = this.addressBytes;
+					if(bytes != null) {
+						super.setAddress(parseAddress(bytes));
+						this.addressBytes = null;
+					}
+				}
+			}
+			return super.getAddress();
+		}
+
+		@Override
+		public synchronized void setAddress(Address address) {
+			super.setAddress(address);
+			this.addressBytes = null;
+		}
+
+		private Address parseAddress(byte[] bytes) {
+			int[] starts = new int[4];
+			split(bytes, 0, bytes.length, this.delimiter, starts);
+			Address address = new Address();
+			address.setStreet(decode(bytes, starts[0], starts[1] - 1));
+			address.setCity(decode(bytes, starts[1], starts[2] - 1));
+			address.setZipcode(decode(bytes, starts[2], starts[3] - 1));
+			return address;
+		}
+	}
+
+}
@@ -0,0 +1,770 @@
+package com.libedi.new_java_feature.java8;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 여러 StringRule 을 입력마다 한 번에 평가하는 색인
+ * - 규칙을 하나씩 test() 하는 것과 결과가 같다.
+ * - 같은 구조의 하위 규칙(예: 여러 규칙의 startsWith("http"))은 하나의 node 로 합쳐 입력마다 한 번만 계산한다.
+ *   and / or 는 하위 규칙의 순서와 중첩에 관계없이 합쳐진다.
+ * - 문자열 비교는 종류별 색인으로 규칙 수와 관계없이 처리한다.
+ *   - length : 기준값 사이의 구간마다 결과 bitmap 을 미리 계산. (이진 탐색 1번)
+ *   - equalTo : HashMap 조회 1번
+ *   - startsWith : prefix trie 를 입력의 앞부분만큼 탐색
+ *   - contains : Aho-Corasick 자동자로 입력을 한 번 탐색
+ * - 조합(and / or / negate)은 참이 된 atom 에서 위로만 전파한다. 규칙 수가 아니라 참이 된 atom 에서 닿는 node 수에 비례한다.
+ *   - 조합 node 마다 참인 하위 node 수(counter)를 두고, and 는 모두, or 는 하나 이상, negate 는 0 일 때 참이다.
+ *   - atom 이 하나도 참이 아닐 때의 값은 미리 계산해 둔다. (negate 는 참) 입력마다 바뀐 node 만 계산하고 되돌린다.
+ *   - 참이 된 atom 이 많으면 (1/8 초과) 대부분의 node 가 바뀌므로, 전파하지 않고 모든 조합 node 를 번호 순으로 계산한다.
+ *
+ * <pre>
+ * PredicateIndex.Builder builder = PredicateIndex.builder();
+ * int longText = builder.add(StringRule.length(Comparison.GT, 10));
+ * int http = builder.add(StringRule.startsWith("http").and(StringRule.contains("github")));
+ * PredicateIndex index = builder.build();
+ *
+ * PredicateIndex.Matcher matcher = index.matcher();
+ * long[] mask = matcher.match("https://github.com");	// mask 의 bit 번호 = 규칙 번호
+ * </pre>
+ * @author Sangjun, Park
+ *
+ */
+public final class PredicateIndex {
+
+	private static final byte AND = 0;
+	private static final byte OR = 1;
+	private static final byte NOT = 2;
+
+	private final int ruleCount;
+	private final int nodeCount;
+	private final int atomCount;
+
+	/** length : 구간별로 참인 length node (node 번호 0 부터) */
+	private final int[] lengthThresholds;
+	private final int[][] lengthRegions;
+	/** equalTo */
+	private final Map<String, Integer> equalTo;
+	/** startsWith */
+	private final TrieNode prefixes;
+	/** contains */
+	private final TrieNode patterns;
+	/** 조합 node (번호 atomCount 부터) */
+	private final byte[] operators;
+	private final int[][] operands;
+	private final int[] operandCounts;
+	/** node 를 하위 node 로 가지는 조합 node */
+	private final int[][] parents;
+	/** 조합 node 의 깊이 (atom 은 0). 같은 깊이의 node 는 서로의 하위 node 가 아니다. */
+	private final int[] levels;
+	/** 깊이별 계산 대기열의 시작 위치 */
+	private final int[] levelOffsets;
+	/** node 를 그대로 사용하는 규칙 */
+	private final int[][] rulesByNode;
+	/** atom 이 하나도 참이 아닐 때의 node 값, 조합 node 의 counter, 규칙 결과 */
+	private final long[] defaultValues;
+	private final int[] defaultCounts;
+	private final long[] defaultResult;
+
+	private PredicateIndex(Builder builder, Compiler compiler) {
+		this.ruleCount = builder.rules.size();
+		this.nodeCount = compiler.nodeCount;
+		this.atomCount = compiler.atomCount;
+		this.lengthThresholds = compiler.lengthThresholds;
+		this.lengthRegions = compiler.lengthRegions;
+		this.equalTo = compiler.equalTo;
+		this.prefixes = compiler.prefixes;
+		this.patterns = compiler.patterns;
+		int compositeCount = this.nodeCount - this.atomCount;
+		this.operators = new byte[compositeCount];
+		this.operands = new int[compositeCount][];
+		this.operandCounts = new int[compositeCount];
+		int[] parentCounts = new int[this.nodeCount];
+		for(int i = 0; i < compositeCount; i++) {
+			CompositeKey key = compiler.composites.get(i);
+			this.operators[i] = key.operator;
+			this.operands[i] = key.operands;
+			this.operandCounts[i] = key.operands.length;
+			for(int operand : key.operands) {
+				parentCounts[operand]++;
+			}
+		}
+		this.parents = new int[this.nodeCount][];
+		for(int node = 0; node < this.nodeCount; node++) {
+			this.parents[node] = new int[parentCounts[node]];
+			parentCounts[node] = 0;
+		}
+		for(int i = 0; i < compositeCount; i++) {
+			for(int operand : compiler.composites.get(i).operands) {
+				this.parents[operand][parentCounts[operand]++] = this.atomCount + i;
+			}
+		}
+		this.rulesByNode = compiler.rulesByNode;
+
+		this.levels = new int[compositeCount];
+		int maxLevel = 0;
+		for(int i = 0; i < compositeCount; i++) {
+			int level = 0;
+			for(int operand : compiler.composites.get(i).operands) {
+				level = Math.max(level, operand < this.atomCount ? 0 : this.levels[operand - this.atomCount]);
+			}
+			this.levels[i] = level + 1;
+			maxLevel = Math.max(maxLevel, level + 1);
+		}
+		this.levelOffsets = new int[maxLevel + 2];
+		for(int level : this.levels) {
+			this.levelOffsets[level + 1]++;
+		}
+		for(int level = 1; level < this.levelOffsets.length; level++) {
+			this.levelOffsets[level] += this.levelOffsets[level - 1];
+		}
+
+		// 하위 node 가 항상 앞 번호이므로 순서대로 계산한다.
+		this.defaultValues = new long[words(this.nodeCount)];
+		this.defaultCounts = new int[compositeCount];
+		this.defaultResult = new long[words(this.ruleCount)];
+		for(int i = 0; i < compositeCount; i++) {
+			for(int operand : compiler.composites.get(i).operands) {
+				if(get(this.defaultValues, operand)) {
+					this.defaultCounts[i]++;
+				}
+			}
+			if(evaluate(this.operators[i], this.defaultCounts[i], this.operandCounts[i])) {
+				set(this.defaultValues, this.atomCount + i);
+				if(this.rulesByNode[this.atomCount + i] != null) {
+					set(this.defaultResult, this.rulesByNode[this.atomCount + i]);
+				}
+			}
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return 등록된 규칙 수
+	 */
+	public int size() {
+		return this.ruleCount;
+	}
+
+	/**
+	 * @return 합친 후의 node 수 (공유된 하위 규칙은 한 번만 센다)
+	 */
+	public int nodeCount() {
+		return this.nodeCount;
+	}
+
+	/**
+	 * @return 입력마다 재사용하는 작업 공간. thread 마다 하나씩 사용한다.
+	 */
+	public Matcher matcher() {
+		return new Matcher();
+	}
+
+	/**
+	 * 간편 메서드. 호출마다 Matcher 를 만든다.
+	 * @param input
+	 * @return 만족하는 규칙 번호
+	 */
+	public BitSet match(String input) {
+		return BitSet.valueOf(matcher().match(input));
+	}
+
+	public class Matcher {
+		private final long[] values = PredicateIndex.this.defaultValues.clone();
+		private final int[] counts = PredicateIndex.this.defaultCounts.clone();
+		private final long[] result = PredicateIndex.this.defaultResult.clone();
+		/** 이번 입력에서 값이나 counter 가 바뀐 node. 다음 입력 전에 기본값으로 되돌린다. */
+		private final int[] touched = new int[PredicateIndex.this.nodeCount];
+		private int touchedCount;
+		/** touched / queued 표시. generation 과 같으면 표시된 것이다. */
+		private final int[] touchedMarks = new int[PredicateIndex.this.nodeCount];
+		private final int[] queuedMarks = new int[PredicateIndex.this.nodeCount];
+		private int generation;
+		/** 깊이별 계산 대기열. 얕은 깊이부터 계산하면 하위 node 가 먼저 계산된다. */
+		private final int[] queue = new int[PredicateIndex.this.nodeCount - PredicateIndex.this.atomCount];
+		private final int[] queueSizes = new int[PredicateIndex.this.levelOffsets.length - 1];
+		/** 이전 입력을 모든 node 계산으로 처리했는지 여부 */
+		private boolean dense;
+
+		private Matcher() {
+		}
+
+		/**
+		 * @param input
+		 * @return 만족하는 규칙의 bit mask. 다음 호출 전까지만 유효하다.
+		 */
+		public long[] match(String input) {
+			Objects.requireNonNull(input, "input");
+			reset();
+
+			// length
+			int[] thresholds = PredicateIndex.this.lengthThresholds;
+			if(thresholds.length > 0) {
+				int index = Arrays.binarySearch(thresholds, input.length());
+				fire(PredicateIndex.this.lengthRegions[index >= 0 ? 2 * index + 1 : 2 * (-index - 1)]);
+			}
+			// equalTo
+			Integer node = PredicateIndex.this.equalTo.get(input);
+			if(node != null) {
+				fire(node);
+			}
+			// startsWith
+			TrieNode prefix = PredicateIndex.this.prefixes;
+			fire(prefix.outputs);
+			for(int i = 0; i < input.length() && prefix != null; i++) {
+				prefix = prefix.child(input.charAt(i));
+				if(prefix != null) {
+					fire(prefix.outputs);
+				}
+			}
+			// contains
+			TrieNode root = PredicateIndex.this.patterns;
+			TrieNode state = root;
+			fire(root.outputs);
+			for(int i = 0; i < input.length(); i++) {
+				char c = input.charAt(i);
+				TrieNode next = state.child(c);
+				while(next == null && state != root) {
+					state = state.fail;
+					next = state.child(c);
+				}
+				state = next != null ? next : root;
+				fire(state.outputs);
+			}
+
+			// 참이 된 atom 이 많으면 모든 조합 node 를 계산하는 편이 싸다.
+			if(this.touchedCount > PredicateIndex.this.atomCount >>> 3) {
+				return matchAll();
+			}
+
+			// and / or / negate : 참이 된 atom 에서 닿는 조합 node 만 얕은 깊이부터 계산한다.
+			int atomCount = PredicateIndex.this.atomCount;
+			for(int i = 0, fired = this.touchedCount; i < fired; i++) {
+				propagate(this.touched[i], true);
+			}
+			int[] levelOffsets = PredicateIndex.this.levelOffsets;
+			for(int level = 1; level < this.queueSizes.length; level++) {
+				for(int i = levelOffsets[level], end = i + this.queueSizes[level]; i < end; i++) {
+					int composite = this.queue[i];
+					int index = composite - atomCount;
+					boolean value = evaluate(PredicateIndex.this.operators[index], this.counts[index], PredicateIndex.this.operandCounts[index]);
+					if(value != get(this.values, composite)) {
+						change(composite, value);
+					}
+				}
+				this.queueSizes[level] = 0;
+			}
+
+			// 바뀐 node 의 규칙만 고친다.
+			int[][] rulesByNode = PredicateIndex.this.rulesByNode;
+			for(int i = 0; i < this.touchedCount; i++) {
+				int id = this.touched[i];
+				int[] rules = rulesByNode[id];
+				if(rules != null && get(this.values, id) != get(PredicateIndex.this.defaultValues, id)) {
+					flip(this.result, rules);
+				}
+			}
+			return this.result;
+		}
+
+		/**
+		 * @return 마지막 입력에서 값이나 counter 가 바뀐 node 수
+		 */
+		int touchedCount() {
+			return this.touchedCount;
+		}
+
+		/**
+		 * 이전 입력에서 바뀐 node, counter, 결과를 기본값으로 되돌린다.
+		 */
+		/**
+		 * 모든 조합 node 를 번호 순으로 계산한다. (counter 는 사용하지 않는다)
+		 */
+		private long[] matchAll() {
+			this.dense = true;
+			long[] values = this.values;
+			byte[] operators = PredicateIndex.this.operators;
+			int[][] operands = PredicateIndex.this.operands;
+			int atomCount = PredicateIndex.this.atomCount;
+			for(int i = 0; i < operators.length; i++) {
+				if(evaluate(values, operators[i], operands[i]) != get(values, atomCount + i)) {
+					flip(values, atomCount + i);
+				}
+			}
+			// 기본값과 다른 node 의 규칙만 고친다.
+			long[] defaultValues = PredicateIndex.this.defaultValues;
+			int[][] rulesByNode = PredicateIndex.this.rulesByNode;
+			for(int w = 0; w < values.length; w++) {
+				long word = values[w] ^ defaultValues[w];
+				while(word != 0) {
+					int id = (w << 6) + Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+					if(rulesByNode[id] != null) {
+						flip(this.result, rulesByNode[id]);
+					}
+				}
+			}
+			return this.result;
+		}
+
+		private void reset() {
+			if(this.dense) {
+				System.arraycopy(PredicateIndex.this.defaultValues, 0, this.values, 0, this.values.length);
+				System.arraycopy(PredicateIndex.this.defaultResult, 0, this.result, 0, this.result.length);
+				this.dense = false;
+				this.touchedCount = 0;
+				nextGeneration();
+				return;
+			}
+			long[] defaultValues = PredicateIndex.this.defaultValues;
+			int[][] rulesByNode = PredicateIndex.this.rulesByNode;
+			int atomCount = PredicateIndex.this.atomCount;
+			for(int i = 0; i < this.touchedCount; i++) {
+				int id = this.touched[i];
+				boolean value = get(defaultValues, id);
+				if(get(this.values, id) != value) {
+					if(rulesByNode[id] != null) {
+						flip(this.result, rulesByNode[id]);
+					}
+					flip(this.values, id);
+				}
+				if(id >= atomCount) {
+					this.counts[id - atomCount] = PredicateIndex.this.defaultCounts[id - atomCount];
+				}
+			}
+			this.touchedCount = 0;
+			nextGeneration();
+		}
+
+		private void nextGeneration() {
+			if(++this.generation == 0) {
+				Arrays.fill(this.touchedMarks, 0);
+				Arrays.fill(this.queuedMarks, 0);
+				this.generation = 1;
+			}
+		}
+
+		private void fire(int[] atoms) {
+			for(int atom : atoms) {
+				fire(atom);
+			}
+		}
+
+		/**
+		 * atom 을 참으로 바꾼다. 상위 조합 node 로는 모든 atom 을 확인한 뒤 전파한다.
+		 */
+		private void fire(int atom) {
+			if(!get(this.values, atom)) {
+				flip(this.values, atom);
+				touch(atom);
+			}
+		}
+
+		private void change(int node, boolean value) {
+			flip(this.values, node);
+			touch(node);
+			propagate(node, value);
+		}
+
+		/**
+		 * 상위 조합 node 의 counter 를 고쳐 계산 대기열에 넣는다.
+		 */
+		private void propagate(int node, boolean value) {
+			int delta = value ? 1 : -1;
+			int atomCount = PredicateIndex.this.atomCount;
+			for(int parent : PredicateIndex.this.parents[node]) {
+				this.counts[parent - atomCount] += delta;
+				touch(parent);
+				if(this.queuedMarks[parent] != this.generation) {
+					this.queuedMarks[parent] = this.generation;
+					int level = PredicateIndex.this.levels[parent - atomCount];
+					this.queue[PredicateIndex.this.levelOffsets[level] + this.queueSizes[level]++] = parent;
+				}
+			}
+		}
+
+		private void touch(int node) {
+			if(this.touchedMarks[node] != this.generation) {
+				this.touchedMarks[node] = this.generation;
+				this.touched[this.touchedCount++] = node;
+			}
+		}
+	}
+
+	private static boolean evaluate(long[] values, byte operator, int[] operands) {
+		switch(operator) {
+			case AND:
+				for(int operand : operands) {
+					if(!get(values, operand)) {
+						return false;
+					}
+				}
+				return true;
+			case OR:
+				for(int operand : operands) {
+					if(get(values, operand)) {
+						return true;
+					}
+				}
+				return false;
+			default:
+				return !get(values, operands[0]);
+		}
+	}
+
+	/**
+	 * @param trueCount 참인 하위 node 수
+	 * @param operandCount 하위 node 수
+	 */
+	private static boolean evaluate(byte operator, int trueCount, int operandCount) {
+		switch(operator) {
+			case AND:
+				return trueCount == operandCount;
+			case OR:
+				return trueCount > 0;
+			default:
+				return trueCount == 0;
+		}
+	}
+
+	private static boolean get(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static void set(long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+	private static void flip(long[] bits, int index) {
+		bits[index >>> 6] ^= 1L << index;
+	}
+
+	private static void flip(long[] bits, int[] indexes) {
+		for(int index : indexes) {
+			bits[index >>> 6] ^= 1L << index;
+		}
+	}
+
+	private static void set(long[] bits, int[] indexes) {
+		for(int index : indexes) {
+			bits[index >>> 6] |= 1L << index;
+		}
+	}
+
+	private static int words(int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	public static final class Builder {
+		private final List<StringRule> rules = new ArrayList<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * @param rule
+		 * @return 규칙 번호 (결과 mask 의 bit 번호)
+		 */
+		public int add(StringRule rule) {
+			this.rules.add(Objects.requireNonNull(rule, "rule"));
+			return this.rules.size() - 1;
+		}
+
+		public PredicateIndex build() {
+			return new PredicateIndex(this, new Compiler(this.rules));
+		}
+	}
+
+	/**
+	 * 규칙을 node 로 합치고 색인을 만든다.
+	 * - node 번호 : length, equalTo, startsWith, contains, 조합 순. 하위 node 는 항상 앞 번호이다.
+	 */
+	private static final class Compiler {
+		private final Map<StringRule, Integer> atoms = new HashMap<>();
+		private final Map<CompositeKey, Integer> compositeIds = new HashMap<>();
+		private final List<CompositeKey> composites = new ArrayList<>();
+		private int atomCount;
+		private int nodeCount;
+
+		private int[] lengthThresholds;
+		private int[][] lengthRegions;
+		private final Map<String, Integer> equalTo = new HashMap<>();
+		private final TrieNode prefixes = new TrieNode();
+		private final TrieNode patterns = new TrieNode();
+		private int[][] rulesByNode;
+
+		Compiler(List<StringRule> rules) {
+			Set<StringRule> lengths = new LinkedHashSet<>();
+			Set<StringRule> texts = new LinkedHashSet<>();
+			for(StringRule rule : rules) {
+				collectAtoms(rule, lengths, texts);
+			}
+			for(StringRule atom : lengths) {
+				this.atoms.put(atom, this.atomCount++);
+			}
+			for(Class<?> kind : Arrays.asList(StringRule.EqualTo.class, StringRule.StartsWith.class, StringRule.Contains.class)) {
+				for(StringRule atom : texts) {
+					if(atom.getClass() == kind) {
+						this.atoms.put(atom, this.atomCount++);
+					}
+				}
+			}
+			this.nodeCount = this.atomCount;
+
+			int[] ruleNodes = new int[rules.size()];
+			for(int i = 0; i < ruleNodes.length; i++) {
+				ruleNodes[i] = intern(rules.get(i));
+			}
+			indexLengths(lengths);
+			indexTexts(texts);
+			indexRules(ruleNodes);
+		}
+
+		private static void collectAtoms(StringRule rule, Set<StringRule> lengths, Set<StringRule> texts) {
+			if(rule instanceof StringRule.Composite) {
+				for(StringRule child : ((StringRule.Composite) rule).rules) {
+					collectAtoms(child, lengths, texts);
+				}
+			} else if(rule instanceof StringRule.Not) {
+				collectAtoms(((StringRule.Not) rule).rule, lengths, texts);
+			} else if(rule instanceof StringRule.Length) {
+				lengths.add(rule);
+			} else {
+				texts.add(rule);
+			}
+		}
+
+		private int intern(StringRule rule) {
+			Integer atom = this.atoms.get(rule);
+			if(atom != null) {
+				return atom;
+			}
+			if(rule instanceof StringRule.Not) {
+				StringRule operand = ((StringRule.Not) rule).rule;
+				if(operand instanceof StringRule.Not) {
+					// not(not(x)) = x
+					return intern(((StringRule.Not) operand).rule);
+				}
+				return composite(NOT, new int[] { intern(operand) });
+			}
+			StringRule.Composite composite = (StringRule.Composite) rule;
+			TreeSet<Integer> operands = new TreeSet<>();
+			collectOperands(composite, composite.and, operands);
+			if(operands.size() == 1) {
+				return operands.first();
+			}
+			return composite(composite.and ? AND : OR, operands.stream().mapToInt(Integer::intValue).toArray());
+		}
+
+		/**
+		 * and(a, and(b, c)) = and(a, b, c). 중첩된 같은 연산은 node 를 만들지 않고 펼친다.
+		 */
+		private void collectOperands(StringRule.Composite composite, boolean and, Set<Integer> operands) {
+			for(StringRule child : composite.rules) {
+				if(child instanceof StringRule.Composite && ((StringRule.Composite) child).and == and) {
+					collectOperands((StringRule.Composite) child, and, operands);
+				} else {
+					operands.add(intern(child));
+				}
+			}
+		}
+
+		private int composite(byte operator, int[] operands) {
+			CompositeKey key = new CompositeKey(operator, operands);
+			Integer id = this.compositeIds.get(key);
+			if(id == null) {
+				id = this.nodeCount++;
+				this.compositeIds.put(key, id);
+				this.composites.add(key);
+			}
+			return id;
+		}
+
+		/**
+		 * 기준값 t0 &lt; t1 &lt; ... 으로 길이를 구간으로 나눈다.
+		 * 구간 2i+1 은 길이 == ti, 구간 2i 는 t(i-1) &lt; 길이 &lt; ti.
+		 */
+		private void indexLengths(Set<StringRule> lengths) {
+			TreeSet<Integer> thresholds = new TreeSet<>();
+			for(StringRule rule : lengths) {
+				thresholds.add(((StringRule.Length) rule).value);
+			}
+			this.lengthThresholds = thresholds.stream().mapToInt(Integer::intValue).toArray();
+			int[] t = this.lengthThresholds;
+			this.lengthRegions = new int[t.length == 0 ? 0 : 2 * t.length + 1][];
+			for(int region = 0; region < this.lengthRegions.length; region++) {
+				// 구간 안의 모든 길이는 모든 기준값과의 대소 관계가 같으므로, 대표값 하나로 계산한다.
+				long representative = region % 2 == 1 ? t[region / 2]
+						: region == 0 ? (long) t[0] - 1 : region / 2 == t.length ? (long) t[t.length - 1] + 1 : t[region / 2 - 1] + 1L;
+				List<Integer> atoms = new ArrayList<>();
+				for(StringRule rule : lengths) {
+					StringRule.Length length = (StringRule.Length) rule;
+					if(compare(length.comparison, representative, length.value)) {
+						atoms.add(this.atoms.get(rule));
+					}
+				}
+				this.lengthRegions[region] = atoms.stream().mapToInt(Integer::intValue).toArray();
+			}
+		}
+
+		private static boolean compare(StringRule.Comparison comparison, long left, int right) {
+			int sign = Long.compare(left, right);
+			return comparison.test(sign, 0);
+		}
+
+		private void indexTexts(Set<StringRule> texts) {
+			for(StringRule rule : texts) {
+				int id = this.atoms.get(rule);
+				String text = ((StringRule.Text) rule).text;
+				if(rule instanceof StringRule.EqualTo) {
+					this.equalTo.put(text, id);
+				} else if(rule instanceof StringRule.StartsWith) {
+					this.prefixes.add(text, id);
+				} else {
+					this.patterns.add(text, id);
+				}
+			}
+			this.patterns.link();
+		}
+
+		private void indexRules(int[] ruleNodes) {
+			List<List<Integer>> rules = new ArrayList<>();
+			for(int i = 0; i < this.nodeCount; i++) {
+				rules.add(null);
+			}
+			for(int rule = 0; rule < ruleNodes.length; rule++) {
+				if(rules.get(ruleNodes[rule]) == null) {
+					rules.set(ruleNodes[rule], new ArrayList<>());
+				}
+				rules.get(ruleNodes[rule]).add(rule);
+			}
+			this.rulesByNode = new int[this.nodeCount][];
+			for(int i = 0; i < this.nodeCount; i++) {
+				if(rules.get(i) != null) {
+					this.rulesByNode[i] = rules.get(i).stream().mapToInt(Integer::intValue).toArray();
+				}
+			}
+		}
+	}
+
+	private static final class CompositeKey {
+		final byte operator;
+		final int[] operands;
+
+		CompositeKey(byte operator, int[] operands) {
+			this.operator = operator;
+			this.operands = operands;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof CompositeKey)) {
+				return false;
+			}
+			CompositeKey other = (CompositeKey) obj;
+			return this.operator == other.operator && Arrays.equals(this.operands, other.operands);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.operands) * 31 + this.operator;
+		}
+	}
+
+	/**
+	 * trie node. contains 는 fail link 를 연결해 Aho-Corasick 자동자로 사용한다.
+	 */
+	private static final class TrieNode {
+		private static final char[] NO_KEYS = {};
+		private static final TrieNode[] NO_CHILDREN = {};
+		private static final int[] NO_OUTPUTS = {};
+
+		private char[] keys = NO_KEYS;
+		private TrieNode[] children = NO_CHILDREN;
+		/** 이 위치에서 끝나는 패턴의 node 번호 (fail link 의 출력 포함) */
+		private int[] outputs = NO_OUTPUTS;
+		private TrieNode fail;
+
+		TrieNode child(char c) {
+			int index = Arrays.binarySearch(this.keys, c);
+			return index >= 0 ? this.children[index] : null;
+		}
+
+		void add(String text, int id) {
+			TrieNode node = this;
+			for(int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				TrieNode next = node.child(c);
+				if(next == null) {
+					next = new TrieNode();
+					int index = -Arrays.binarySearch(node.keys, c) - 1;
+					node.keys = insert(node.keys, index, c);
+					TrieNode[] children = Arrays.copyOf(node.children, node.children.length + 1);
+					System.arraycopy(children, index, children, index + 1, children.length - index - 1);
+					children[index] = next;
+					node.children = children;
+				}
+				node = next;
+			}
+			node.outputs = append(node.outputs, id);
+		}
+
+		/**
+		 * fail link 를 너비 우선으로 연결하고, fail link 의 출력을 합친다.
+		 */
+		void link() {
+			this.fail = this;
+			Deque<TrieNode> queue = new ArrayDeque<>();
+			for(TrieNode child : this.children) {
+				child.fail = this;
+				queue.add(child);
+			}
+			while(!queue.isEmpty()) {
+				TrieNode node = queue.poll();
+				for(int i = 0; i < node.keys.length; i++) {
+					char c = node.keys[i];
+					TrieNode child = node.children[i];
+					TrieNode fail = node.fail;
+					TrieNode target = fail.child(c);
+					while(target == null && fail != this) {
+						fail = fail.fail;
+						target = fail.child(c);
+					}
+					child.fail = target != null ? target : this;
+					for(int output : child.fail.outputs) {
+						child.outputs = append(child.outputs, output);
+					}
+					queue.add(child);
+				}
+			}
+		}
+
+		private static char[] insert(char[] keys, int index, char c) {
+			char[] result = new char[keys.length + 1];
+			System.arraycopy(keys, 0, result, 0, index);
+			result[index] = c;
+			System.arraycopy(keys, index, result, index + 1, keys.length - index);
+			return result;
+		}
+
+		private static int[] append(int[] values, int value) {
+			int[] result = Arrays.copyOf(values, values.length + 1);
+			result[values.length] = value;
+			return result;
+		}
+	}
+
+}
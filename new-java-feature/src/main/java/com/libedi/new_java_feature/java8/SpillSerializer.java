@@ -0,0 +1,91 @@
+package com.libedi.new_java_feature.java8;
+
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.readSignedVarLong;
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.readVarLong;
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.writeSignedVarLong;
+import static com.libedi.new_java_feature.java8.SqlTimeCodec.writeVarLong;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SpillingCollectors 가 key / 원소를 디스크로 내릴 때 사용하는 직렬화
+ * - 같은 값은 항상 같은 byte 로 기록해야 한다. (key 는 byte 로 비교한다)
+ * - 버퍼가 부족하면 BufferOverflowException 을 던진다. (호출하는 쪽에서 버퍼를 늘려 다시 기록한다)
+ * @author Sangjun, Park
+ *
+ * @param <T>
+ */
+public interface SpillSerializer<T> {
+
+	void write(ByteBuffer buffer, T value);
+
+	T read(ByteBuffer buffer);
+
+	/**
+	 * UTF-8 문자열
+	 */
+	static SpillSerializer<String> strings() {
+		return new SpillSerializer<String>() {
+			@Override
+			public void write(ByteBuffer buffer, String value) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				writeVarLong(buffer, bytes.length);
+				if(buffer.remaining() < bytes.length) {
+					throw new BufferOverflowException();
+				}
+				buffer.put(bytes);
+			}
+
+			@Override
+			public String read(ByteBuffer buffer) {
+				long length = readVarLong(buffer);
+				if(length < 0 || length > buffer.remaining()) {
+					throw new BufferUnderflowException();
+				}
+				byte[] bytes = new byte[(int) length];
+				buffer.get(bytes);
+				return new String(bytes, StandardCharsets.UTF_8);
+			}
+		};
+	}
+
+	/**
+	 * zigzag varint
+	 */
+	static SpillSerializer<Long> longs() {
+		return new SpillSerializer<Long>() {
+			@Override
+			public void write(ByteBuffer buffer, Long value) {
+				writeSignedVarLong(buffer, value);
+			}
+
+			@Override
+			public Long read(ByteBuffer buffer) {
+				return readSignedVarLong(buffer);
+			}
+		};
+	}
+
+	/**
+	 * ObjectCodec 형식 (Order 등 필드 기반 모델)
+	 * @param type
+	 */
+	static <T> SpillSerializer<T> objects(Class<T> type) {
+		ObjectCodec<T> codec = ObjectCodec.of(type);
+		return new SpillSerializer<T>() {
+			@Override
+			public void write(ByteBuffer buffer, T value) {
+				codec.write(buffer, value);
+			}
+
+			@Override
+			public T read(ByteBuffer buffer) {
+				return codec.read(buffer);
+			}
+		};
+	}
+
+}
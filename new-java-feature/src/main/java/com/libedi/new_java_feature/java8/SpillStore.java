@@ -0,0 +1,1031 @@
+package com.libedi.new_java_feature.java8;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * SpillingCollectors 의 메모리 / 디스크 저장소
+ * - 레코드 형식 : hash(int) | key 길이(varint) | key | 값 길이(varint) | 값
+ * - 메모리 구역(arena)에 레코드를 이어 쓰고, 예산을 넘으면 (hash, key byte) 순으로 정렬해 임시 파일(run)로 내린다.
+ *   hash 가 먼저이므로 run 은 hash 구간(partition)이 차례로 놓인 모양이 되고, 같은 key 는 항상 붙어 있다.
+ *   partition 마다 파일을 따로 만들지 않고 한 파일에 hash 순으로 이어 쓰며, sparse index 가 partition 의 시작 위치를 찾는다.
+ *   (spill 마다 partition 수만큼 파일이 생기지 않고, 병합은 hash 순으로 한 번에 진행된다.)
+ *   같은 key 의 레코드는 넣은 순서를 유지한다.
+ * - groups() 는 모든 run (run 이 없으면 메모리의 레코드) 을 k-way 병합해 key 별로 차례로 돌려준다. (한 key 의 값만 메모리에 올린다)
+ *   run 이 있으면 메모리의 레코드도 run 으로 내리고, 예산을 병합 버퍼 (run 당 4 KB ~ 64 KB, 최소 2 개) 로 나누어 쓴다.
+ *   run 이 병합 버퍼 수보다 많으면, 그 수만큼씩 병합해 더 큰 run 으로 바꾸기를 반복한 뒤 마지막 병합을 한다.
+ * - unique (distinct 용) 이면 메모리 안의 중복은 hash table 로, run 안의 중복은 sparse index 로 찾아 버린다.
+ *   BloomFilter 가 있으면 처음 보는 key 는 run 을 읽지 않는다.
+ * - 예산은 arena 와 레코드 index, 또는 병합 버퍼의 크기이다. 쓰기 버퍼, run 의 sparse index, BloomFilter 는 포함하지 않는다.
+ * - close() 되지 않은 저장소의 run 은 저장소가 GC 되거나 JVM 이 종료될 때 지운다. (Cleanup)
+ *   처음 run 을 만들 때 등록하므로, 메모리 안에서 끝나는 저장소는 thread 나 shutdown hook 을 만들지 않는다.
+ * @author Sangjun, Park
+ *
+ */
+final class SpillStore implements Closeable {
+
+	static final int MIN_MEMORY_BUDGET = 4096;
+	/** run 에서 이 레코드 수마다 (hash, 파일 위치) 를 기억한다. */
+	static final int SPARSE_INTERVAL = 64;
+
+	/** 레코드마다 entries 에 쓰는 크기 */
+	private static final int ENTRY_BYTES = Long.BYTES;
+	/** unique 이면 hash table (부하율 1/4 ~ 1/2) 크기도 더한다. */
+	private static final int TABLE_BYTES = 4 * Integer.BYTES;
+	private static final int MAX_VARINT = 5;
+	private static final int MAX_HEADER = Integer.BYTES + MAX_VARINT;
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+	private static final int MERGE_BUFFER_SIZE = 64 * 1024;
+	/** 예산이 작아도 병합 버퍼는 이 크기 이상이다. */
+	private static final int MIN_MERGE_BUFFER_SIZE = 4 * 1024;
+	/** 한 번에 병합하는 run 의 최대 수 */
+	private static final int MAX_MERGE_FAN_IN = 64;
+	private static final int LOOKUP_BUFFER_SIZE = 4 * 1024;
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+	private final Path directory;
+	private final int memoryBudget;
+	private final boolean unique;
+	private final BloomFilter bloom;
+
+	private byte[] arena = new byte[1024];
+	private int used;
+	/** (hash &lt;&lt; 32) | arena 위치 */
+	private long[] entries = new long[64];
+	private int count;
+	/** unique 일 때 entries 위치 + 1 (0 은 빈 칸) */
+	private int[] table;
+	/** hash 충돌 구간을 정렬할 때 사용한다. 충돌이 있을 때만 만든다. */
+	private long[] sortBuffer;
+
+	private final List<Run> runs = new ArrayList<>();
+	/** 처음 run 을 만들 때 등록한다. */
+	private Cleanup cleanup;
+	private ByteBuffer keyBuffer = ByteBuffer.allocate(256);
+	private ByteBuffer valueBuffer = ByteBuffer.allocate(256);
+	private ByteBuffer writeBuffer;
+	private RunCursor lookupCursor;
+	private long diskLookups;
+	private boolean closed;
+
+	/**
+	 * @param directory 임시 파일 위치. null 이면 시스템 기본 위치
+	 * @param memoryBudget byte
+	 * @param unique key 당 레코드를 하나만 저장할지 여부
+	 * @param bloom unique 일 때 run 조회 전에 확인할 filter. 없으면 null
+	 */
+	SpillStore(Path directory, int memoryBudget, boolean unique, BloomFilter bloom) {
+		if(memoryBudget < MIN_MEMORY_BUDGET) {
+			throw new IllegalArgumentException("memoryBudget must be at least " + MIN_MEMORY_BUDGET + ": " + memoryBudget);
+		}
+		this.directory = directory;
+		this.memoryBudget = memoryBudget;
+		this.unique = unique;
+		this.bloom = bloom;
+		this.table = unique ? new int[128] : null;
+	}
+
+	/**
+	 * 레코드 추가 (groupingBy)
+	 */
+	<K, V> void add(SpillSerializer<K> keySerializer, K key, SpillSerializer<V> valueSerializer, V value) throws IOException {
+		this.keyBuffer = serialize(this.keyBuffer, keySerializer, key);
+		this.valueBuffer = serialize(this.valueBuffer, valueSerializer, value);
+		append(hashOf(this.keyBuffer), this.keyBuffer, this.valueBuffer);
+	}
+
+	/**
+	 * 처음 보는 key 만 추가 (distinct)
+	 * @return 추가했으면 true, 이미 있으면 false
+	 */
+	<K> boolean addUnique(SpillSerializer<K> keySerializer, K key) throws IOException {
+		this.keyBuffer = serialize(this.keyBuffer, keySerializer, key);
+		byte[] bytes = this.keyBuffer.array();
+		int length = this.keyBuffer.limit();
+		long hash = hash(bytes, 0, length);
+		int high = (int) (hash >>> 32);
+		if(find(high, bytes, length) >= 0) {
+			return false;
+		}
+		if(!this.runs.isEmpty() && (this.bloom == null || this.bloom.mightContain(hash))) {
+			this.diskLookups++;
+			for(Run run : this.runs) {
+				if(contains(run, high, bytes, length)) {
+					return false;
+				}
+			}
+		}
+		if(this.bloom != null) {
+			this.bloom.add(hash);
+		}
+		append(high, this.keyBuffer, EMPTY);
+		return true;
+	}
+
+	/**
+	 * 다른 저장소의 레코드를 뒤에 붙인다. (병렬 stream 의 combiner)
+	 * - 둘 다 run 으로 내린 뒤 run 목록을 합치므로 순서가 유지된다. unique 여도 run 사이의 중복은 groups() 에서 버린다.
+	 */
+	void addAll(SpillStore other) throws IOException {
+		spill();
+		other.spill();
+		if(!other.runs.isEmpty()) {
+			ensureCleanup();
+		}
+		this.runs.addAll(other.runs);
+		other.runs.clear();
+		if(this.bloom != null && other.bloom != null) {
+			this.bloom.addAll(other.bloom);
+		}
+		other.close();
+	}
+
+	int getRunCount() {
+		return this.runs.size();
+	}
+
+	/**
+	 * run 을 조회한 횟수 (BloomFilter 효과 확인용)
+	 */
+	long getDiskLookups() {
+		return this.diskLookups;
+	}
+
+	/**
+	 * key 별 (key, 값 목록) 을 차례로 읽는 Stream
+	 * - 순서는 key 의 hash 순이다. 같은 key 의 값은 넣은 순서이다.
+	 * - 끝까지 읽거나 Stream 을 닫으면 임시 파일을 지운다.
+	 * @param valueSerializer null 이면 값 목록은 비어 있다.
+	 */
+	<K, V> Stream<Map.Entry<K, List<V>>> groups(SpillSerializer<K> keySerializer, SpillSerializer<V> valueSerializer) {
+		ensureOpen();
+		List<Cursor> cursors;
+		try {
+			cursors = mergeCursors();
+		} catch(IOException e) {
+			closeOnFailure(e);
+			throw new UncheckedIOException(e);
+		} catch(RuntimeException | Error e) {
+			closeOnFailure(e);
+			throw e;
+		}
+		Spliterator<Map.Entry<K, List<V>>> spliterator = new GroupSpliterator<>(cursors, keySerializer, valueSerializer);
+		return StreamSupport.stream(spliterator, false).onClose(() -> {
+			try {
+				close();
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(this.closed) {
+			return;
+		}
+		this.closed = true;
+		if(this.cleanup != null) {
+			this.cleanup.cancel();
+		}
+		this.arena = null;
+		this.entries = null;
+		this.table = null;
+		this.sortBuffer = null;
+		try {
+			deleteRuns(this.runs);
+		} finally {
+			this.runs.clear();
+		}
+	}
+
+	/**
+	 * 실패하면 결과 Stream 이 만들어지지 않으므로, 이미 내린 임시 파일을 지운다.
+	 * @param failure close() 의 예외를 suppressed 로 추가한다.
+	 */
+	void closeOnFailure(Throwable failure) {
+		try {
+			close();
+		} catch(IOException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * 병합할 cursor 목록
+	 * - run 이 없으면 메모리의 레코드만 읽는다.
+	 * - run 이 있으면 메모리의 레코드도 run 으로 내리고 arena 를 놓은 뒤, 예산 안에서 병합 버퍼를 나눈다.
+	 */
+	private List<Cursor> mergeCursors() throws IOException {
+		if(this.runs.isEmpty()) {
+			sortEntries();
+			return Collections.singletonList(new MemoryCursor(0));
+		}
+		spill();
+		this.arena = null;
+		this.entries = null;
+		this.table = null;
+
+		int fanIn = Math.max(2, Math.min(MAX_MERGE_FAN_IN, this.memoryBudget / MIN_MERGE_BUFFER_SIZE));
+		int bufferSize = Math.max(MIN_MERGE_BUFFER_SIZE, Math.min(MERGE_BUFFER_SIZE, this.memoryBudget / fanIn));
+		while(this.runs.size() > fanIn) {
+			for(int i = 0; i < this.runs.size(); i++) {
+				List<Run> group = this.runs.subList(i, Math.min(i + fanIn, this.runs.size()));
+				if(group.size() < 2) {
+					continue;
+				}
+				Run merged = merge(group, bufferSize);
+				List<Run> merging = new ArrayList<>(group);
+				group.clear();
+				this.runs.add(i, merged);
+				deleteRuns(merging);
+			}
+		}
+
+		List<Cursor> cursors = new ArrayList<>(this.runs.size());
+		for(Run run : this.runs) {
+			cursors.add(new RunCursor(run.channel, 0, bufferSize, cursors.size()));
+		}
+		return cursors;
+	}
+
+	/**
+	 * run 들을 순서를 유지하며 하나의 run 으로 병합한다. (같은 key 는 앞의 run 이 먼저)
+	 */
+	private Run merge(List<Run> group, int bufferSize) throws IOException {
+		Run merged = createRun(SPARSE_INTERVAL);
+		try {
+			PriorityQueue<RunCursor> queue = new PriorityQueue<>(group.size(), SpillStore::compareRecords);
+			for(int i = 0; i < group.size(); i++) {
+				RunCursor cursor = new RunCursor(group.get(i).channel, 0, bufferSize, i);
+				if(cursor.next()) {
+					queue.add(cursor);
+				}
+			}
+			RunWriter writer = new RunWriter(merged, writeBuffer());
+			RunCursor cursor;
+			while((cursor = queue.poll()) != null) {
+				writer.write(cursor.hash, cursor.buffer.array(), cursor.buffer.position(), cursor.recordLength);
+				if(cursor.next()) {
+					queue.add(cursor);
+				}
+			}
+			writer.finish();
+			return merged;
+		} catch(IOException | RuntimeException | Error e) {
+			deleteOnFailure(merged, e);
+			throw e;
+		}
+	}
+
+	/**
+	 * 버퍼가 부족하면 두 배로 늘려 다시 기록한다.
+	 * @return flip 된 버퍼
+	 */
+	private <T> ByteBuffer serialize(ByteBuffer buffer, SpillSerializer<T> serializer, T value) {
+		while(true) {
+			buffer.clear();
+			try {
+				serializer.write(buffer, value);
+				buffer.flip();
+				return buffer;
+			} catch(BufferOverflowException e) {
+				if(buffer.capacity() >= this.memoryBudget) {
+					throw new IllegalStateException("record larger than memory budget: " + this.memoryBudget);
+				}
+				buffer = ByteBuffer.allocate((int) Math.min(this.memoryBudget, 2L * buffer.capacity()));
+			}
+		}
+	}
+
+	private void append(int hash, ByteBuffer key, ByteBuffer value) throws IOException {
+		ensureOpen();
+		int keyLength = key.remaining();
+		int valueLength = value.remaining();
+		long size = (long) Integer.BYTES + varIntSize(keyLength) + keyLength + varIntSize(valueLength) + valueLength;
+		int entryBytes = this.unique ? ENTRY_BYTES + TABLE_BYTES : ENTRY_BYTES;
+		if(size + entryBytes > this.memoryBudget) {
+			throw new IllegalStateException("record larger than memory budget: " + size);
+		}
+		if(this.used + size + (this.count + 1L) * entryBytes > this.memoryBudget) {
+			spill();
+		}
+		if(this.used + size > this.arena.length) {
+			this.arena = Arrays.copyOf(this.arena, (int) Math.min(this.memoryBudget, Math.max(this.used + size, 2L * this.arena.length)));
+		}
+		if(this.count == this.entries.length) {
+			this.entries = Arrays.copyOf(this.entries, 2 * this.count);
+		}
+
+		int offset = this.used;
+		byte[] arena = this.arena;
+		putInt(arena, offset, hash);
+		int index = putVarInt(arena, offset + Integer.BYTES, keyLength);
+		System.arraycopy(key.array(), key.arrayOffset() + key.position(), arena, index, keyLength);
+		index = putVarInt(arena, index + keyLength, valueLength);
+		System.arraycopy(value.array(), value.arrayOffset() + value.position(), arena, index, valueLength);
+		this.used = index + valueLength;
+
+		this.entries[this.count] = (long) hash << 32 | offset;
+		this.count++;
+		if(this.unique) {
+			insert(this.count - 1);
+		}
+	}
+
+	/**
+	 * 메모리의 레코드를 정렬해 run 으로 내린다.
+	 */
+	private void spill() throws IOException {
+		ensureOpen();
+		if(this.count == 0) {
+			return;
+		}
+		sortEntries();
+		Run run = createRun((this.count + SPARSE_INTERVAL - 1) / SPARSE_INTERVAL);
+		try {
+			RunWriter writer = new RunWriter(run, writeBuffer());
+			for(int i = 0; i < this.count; i++) {
+				int offset = (int) this.entries[i];
+				writer.write((int) (this.entries[i] >>> 32), this.arena, offset, recordLength(this.arena, offset));
+			}
+			writer.finish();
+		} catch(IOException | RuntimeException | Error e) {
+			deleteOnFailure(run, e);
+			throw e;
+		}
+		this.runs.add(run);
+		this.used = 0;
+		this.count = 0;
+		if(this.table != null) {
+			Arrays.fill(this.table, 0);
+		}
+	}
+
+	private Run createRun(int expectedSamples) throws IOException {
+		ensureCleanup();
+		Path path = this.directory == null ? Files.createTempFile("spill-", ".run")
+				: Files.createTempFile(this.directory, "spill-", ".run");
+		try {
+			return new Run(path, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE), expectedSamples);
+		} catch(IOException | RuntimeException | Error e) {
+			try {
+				Files.deleteIfExists(path);
+			} catch(IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+
+	private void ensureCleanup() {
+		if(this.cleanup == null) {
+			this.cleanup = new Cleanup(this, this.runs);
+		}
+	}
+
+	private ByteBuffer writeBuffer() {
+		if(this.writeBuffer == null) {
+			this.writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+		}
+		return this.writeBuffer;
+	}
+
+	private static void deleteOnFailure(Run run, Throwable failure) {
+		try {
+			run.delete();
+		} catch(IOException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * 모두 지우고, 처음 실패한 예외를 던진다.
+	 */
+	private static void deleteRuns(List<Run> runs) throws IOException {
+		IOException failure = null;
+		for(Run run : runs) {
+			try {
+				run.delete();
+			} catch(IOException e) {
+				if(failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if(failure != null) {
+			throw failure;
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		writeFully(channel, buffer);
+		buffer.clear();
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * (hash, key byte, 넣은 순서) 로 정렬
+	 * - long 정렬로 (hash, 넣은 순서) 가 되고, hash 가 같은 구간에 다른 key 가 섞여 있을 때만 key byte 로 다시 정렬한다.
+	 */
+	private void sortEntries() {
+		if(this.count < 2) {
+			return;
+		}
+		Arrays.sort(this.entries, 0, this.count);
+		int start = 0;
+		while(start < this.count) {
+			int hash = (int) (this.entries[start] >>> 32);
+			int end = start + 1;
+			boolean mixed = false;
+			while(end < this.count && (int) (this.entries[end] >>> 32) == hash) {
+				if(!mixed && compareKeys((int) this.entries[start], (int) this.entries[end]) != 0) {
+					mixed = true;
+				}
+				end++;
+			}
+			if(mixed) {
+				if(this.sortBuffer == null || this.sortBuffer.length < end - start) {
+					this.sortBuffer = new long[Math.max(end - start, 16)];
+				}
+				sortByKey(this.entries, this.sortBuffer, start, end);
+			}
+			start = end;
+		}
+	}
+
+	/**
+	 * entries[from, to) 를 key byte 순으로 안정 정렬한다. (merge sort, 작은 구간은 insertion sort)
+	 * - 안정 정렬이므로 같은 key 는 넣은 순서를 유지한다.
+	 * @param buffer 앞쪽 절반을 옮겨 둘 공간. to - from 이상
+	 */
+	private void sortByKey(long[] entries, long[] buffer, int from, int to) {
+		if(to - from <= 8) {
+			for(int i = from + 1; i < to; i++) {
+				long entry = entries[i];
+				int j = i - 1;
+				while(j >= from && compareKeys((int) entries[j], (int) entry) > 0) {
+					entries[j + 1] = entries[j];
+					j--;
+				}
+				entries[j + 1] = entry;
+			}
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		sortByKey(entries, buffer, from, middle);
+		sortByKey(entries, buffer, middle, to);
+		if(compareKeys((int) entries[middle - 1], (int) entries[middle]) <= 0) {
+			return;
+		}
+		int leftLength = middle - from;
+		System.arraycopy(entries, from, buffer, 0, leftLength);
+		int left = 0;
+		int right = middle;
+		int index = from;
+		while(left < leftLength && right < to) {
+			entries[index++] = compareKeys((int) entries[right], (int) buffer[left]) < 0 ? entries[right++] : buffer[left++];
+		}
+		System.arraycopy(buffer, left, entries, index, leftLength - left);
+	}
+
+	private int compareKeys(int offsetA, int offsetB) {
+		byte[] arena = this.arena;
+		int lengthA = getVarInt(arena, offsetA + Integer.BYTES);
+		int lengthB = getVarInt(arena, offsetB + Integer.BYTES);
+		return compare(arena, offsetA + Integer.BYTES + varIntSize(lengthA), lengthA,
+				arena, offsetB + Integer.BYTES + varIntSize(lengthB), lengthB);
+	}
+
+	/**
+	 * unique 일 때 메모리에서 같은 key 를 찾는다.
+	 * @return entries 위치. 없으면 -1
+	 */
+	private int find(int hash, byte[] key, int length) {
+		if(this.table == null || this.count == 0) {
+			return -1;
+		}
+		int mask = this.table.length - 1;
+		for(int slot = mix(hash) & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+			int entry = this.table[slot] - 1;
+			if((int) (this.entries[entry] >>> 32) == hash) {
+				int offset = (int) this.entries[entry];
+				int keyLength = getVarInt(this.arena, offset + Integer.BYTES);
+				if(compare(this.arena, offset + Integer.BYTES + varIntSize(keyLength), keyLength, key, 0, length) == 0) {
+					return entry;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private void insert(int entry) {
+		if(2 * this.count > this.table.length) {
+			this.table = new int[2 * this.table.length];
+			for(int i = 0; i < entry; i++) {
+				insertSlot(i);
+			}
+		}
+		insertSlot(entry);
+	}
+
+	private void insertSlot(int entry) {
+		int mask = this.table.length - 1;
+		int slot = mix((int) (this.entries[entry] >>> 32)) & mask;
+		while(this.table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		this.table[slot] = entry + 1;
+	}
+
+	/**
+	 * run 에서 key 를 찾는다.
+	 * - hash 가 더 작은 마지막 표본 위치부터, hash 가 더 큰 레코드가 나올 때까지 읽는다.
+	 */
+	private boolean contains(Run run, int hash, byte[] key, int length) throws IOException {
+		int low = 0;
+		int high = run.samples - 1;
+		int start = 0;
+		while(low <= high) {
+			int middle = (low + high) >>> 1;
+			if(run.sampleHashes[middle] < hash) {
+				start = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		if(this.lookupCursor == null) {
+			this.lookupCursor = new RunCursor(run.channel, run.samplePositions[start], LOOKUP_BUFFER_SIZE, 0);
+		} else {
+			this.lookupCursor.reset(run.channel, run.samplePositions[start]);
+		}
+		RunCursor cursor = this.lookupCursor;
+		while(cursor.next()) {
+			if(cursor.hash > hash) {
+				return false;
+			}
+			if(cursor.hash == hash && compare(cursor.array, cursor.keyOffset, cursor.keyLength, key, 0, length) == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void ensureOpen() {
+		if(this.closed) {
+			throw new IllegalStateException("SpillStore is closed");
+		}
+	}
+
+	/**
+	 * 정렬된 run 파일
+	 */
+	private static final class Run {
+		private final Path path;
+		private final FileChannel channel;
+		private int samples;
+		private int[] sampleHashes;
+		private long[] samplePositions;
+
+		private Run(Path path, FileChannel channel, int expectedSamples) {
+			this.path = path;
+			this.channel = channel;
+			this.sampleHashes = new int[Math.max(1, expectedSamples)];
+			this.samplePositions = new long[Math.max(1, expectedSamples)];
+		}
+
+		private void sample(int hash, long position) {
+			if(this.samples == this.sampleHashes.length) {
+				this.sampleHashes = Arrays.copyOf(this.sampleHashes, 2 * this.samples);
+				this.samplePositions = Arrays.copyOf(this.samplePositions, 2 * this.samples);
+			}
+			this.sampleHashes[this.samples] = hash;
+			this.samplePositions[this.samples] = position;
+			this.samples++;
+		}
+
+		private void delete() throws IOException {
+			try {
+				this.channel.close();
+			} finally {
+				Files.deleteIfExists(this.path);
+			}
+		}
+	}
+
+	/**
+	 * 정렬된 레코드를 run 에 이어 쓰며, SPARSE_INTERVAL 마다 (hash, 파일 위치) 를 기억한다.
+	 */
+	private static final class RunWriter {
+		private final Run run;
+		private final ByteBuffer buffer;
+		private long position;
+		private long records;
+
+		private RunWriter(Run run, ByteBuffer buffer) {
+			this.run = run;
+			this.buffer = buffer;
+			buffer.clear();
+		}
+
+		private void write(int hash, byte[] array, int offset, int length) throws IOException {
+			if(this.records++ % SPARSE_INTERVAL == 0) {
+				this.run.sample(hash, this.position);
+			}
+			if(this.buffer.remaining() < length) {
+				flush(this.run.channel, this.buffer);
+			}
+			if(this.buffer.remaining() < length) {
+				writeFully(this.run.channel, ByteBuffer.wrap(array, offset, length));
+			} else {
+				this.buffer.put(array, offset, length);
+			}
+			this.position += length;
+		}
+
+		private void finish() throws IOException {
+			flush(this.run.channel, this.buffer);
+		}
+	}
+
+	/**
+	 * close() 되지 않은 저장소의 run 을 지운다. (Java 8 에는 java.lang.ref.Cleaner 가 없다)
+	 * - 결과 Stream 을 닫지 않고 버리거나, 병렬 stream 이 실패해 combiner 에 전달되지 못한 저장소는 close() 되지 않는다.
+	 * - 저장소가 GC 되면 daemon thread 가 run 을 지우고, JVM 이 종료될 때 남은 run 을 지운다.
+	 * - 저장소가 아닌 run 목록만 참조해야 저장소가 GC 될 수 있다.
+	 */
+	private static final class Cleanup extends PhantomReference<SpillStore> {
+		private static final ReferenceQueue<SpillStore> QUEUE = new ReferenceQueue<>();
+		/** PhantomReference 가 먼저 GC 되지 않도록 붙잡아 둔다. */
+		private static final Set<Cleanup> PENDING = ConcurrentHashMap.newKeySet();
+		private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+		private final List<Run> runs;
+
+		private Cleanup(SpillStore store, List<Run> runs) {
+			super(store, QUEUE);
+			this.runs = runs;
+			PENDING.add(this);
+			start();
+		}
+
+		/**
+		 * 처음 등록될 때 daemon thread 와 shutdown hook 을 만든다.
+		 */
+		private static void start() {
+			if(STARTED.get() || !STARTED.compareAndSet(false, true)) {
+				return;
+			}
+			Thread cleaner = new Thread(Cleanup::drain, "spill-store-cleaner");
+			cleaner.setDaemon(true);
+			cleaner.start();
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> PENDING.forEach(Cleanup::clean), "spill-store-shutdown"));
+		}
+
+		private void cancel() {
+			PENDING.remove(this);
+			clear();
+		}
+
+		private void clean() {
+			if(!PENDING.remove(this)) {
+				return;
+			}
+			try {
+				deleteRuns(this.runs);
+			} catch(IOException | RuntimeException e) {
+				// 안전망이므로 지우지 못한 파일은 남겨 둔다. (JVM 종료 시에는 사용 중인 저장소와 경합할 수 있다)
+			}
+		}
+
+		private static void drain() {
+			while(true) {
+				try {
+					((Cleanup) QUEUE.remove()).clean();
+				} catch(InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 정렬된 레코드를 차례로 가리킨다. 현재 레코드는 array 안의 위치로 나타낸다.
+	 */
+	private abstract static class Cursor {
+		/** 같은 key 이면 먼저 넣은 쪽(작은 값)이 앞이다. */
+		final int order;
+		byte[] array;
+		int hash;
+		int keyOffset;
+		int keyLength;
+		int valueOffset;
+		int valueLength;
+
+		Cursor(int order) {
+			this.order = order;
+		}
+
+		/**
+		 * 다음 레코드로 이동
+		 * @return 레코드가 없으면 false
+		 */
+		abstract boolean next() throws IOException;
+
+		void setRecord(byte[] array, int offset) {
+			this.array = array;
+			this.hash = getInt(array, offset);
+			this.keyLength = getVarInt(array, offset + Integer.BYTES);
+			this.keyOffset = offset + Integer.BYTES + varIntSize(this.keyLength);
+			this.valueLength = getVarInt(array, this.keyOffset + this.keyLength);
+			this.valueOffset = this.keyOffset + this.keyLength + varIntSize(this.valueLength);
+		}
+	}
+
+	private final class MemoryCursor extends Cursor {
+		private int index = -1;
+
+		private MemoryCursor(int order) {
+			super(order);
+		}
+
+		@Override
+		boolean next() {
+			if(++this.index >= SpillStore.this.count) {
+				return false;
+			}
+			setRecord(SpillStore.this.arena, (int) SpillStore.this.entries[this.index]);
+			return true;
+		}
+	}
+
+	/**
+	 * run 파일을 위치 지정 읽기(positional read)로 읽는다. 여러 cursor 가 같은 channel 을 함께 쓸 수 있다.
+	 */
+	private static final class RunCursor extends Cursor {
+		private FileChannel channel;
+		/** 다음에 읽을 파일 위치 */
+		private long filePosition;
+		private ByteBuffer buffer;
+		private int recordLength;
+
+		private RunCursor(FileChannel channel, long position, int bufferSize, int order) {
+			super(order);
+			this.buffer = ByteBuffer.allocate(bufferSize);
+			reset(channel, position);
+		}
+
+		private void reset(FileChannel channel, long position) {
+			this.channel = channel;
+			this.filePosition = position;
+			this.buffer.clear();
+			this.buffer.flip();
+			this.recordLength = 0;
+		}
+
+		@Override
+		boolean next() throws IOException {
+			ByteBuffer buffer = this.buffer;
+			buffer.position(buffer.position() + this.recordLength);
+			this.recordLength = 0;
+			fill(MAX_HEADER);
+			if(!buffer.hasRemaining()) {
+				return false;
+			}
+			int base = buffer.position();
+			int keyLength = getVarInt(buffer.array(), base + Integer.BYTES);
+			int keyStart = Integer.BYTES + varIntSize(keyLength);
+			fill(keyStart + keyLength + MAX_VARINT);
+			base = buffer.position();
+			int valueLength = getVarInt(buffer.array(), base + keyStart + keyLength);
+			int length = keyStart + keyLength + varIntSize(valueLength) + valueLength;
+			if(!fill(length)) {
+				throw new EOFException("truncated spill run");
+			}
+			setRecord(buffer.array(), buffer.position());
+			this.recordLength = length;
+			return true;
+		}
+
+		/**
+		 * 남은 byte 가 length 이상이 되도록 읽는다. 필요하면 버퍼를 늘린다.
+		 * @return 파일 끝이라 채우지 못하면 false
+		 */
+		private boolean fill(int length) throws IOException {
+			if(this.buffer.remaining() >= length) {
+				return true;
+			}
+			if(this.buffer.capacity() < length) {
+				ByteBuffer larger = ByteBuffer.allocate(Math.max(length, 2 * this.buffer.capacity()));
+				larger.put(this.buffer);
+				this.buffer = larger;
+			} else {
+				this.buffer.compact();
+			}
+			while(this.buffer.position() < length) {
+				int read = this.channel.read(this.buffer, this.filePosition);
+				if(read < 0) {
+					break;
+				}
+				this.filePosition += read;
+			}
+			this.buffer.flip();
+			return this.buffer.remaining() >= length;
+		}
+	}
+
+	/**
+	 * cursor 들을 k-way 병합해 key 별로 묶는다.
+	 */
+	private final class GroupSpliterator<K, V> extends Spliterators.AbstractSpliterator<Map.Entry<K, List<V>>> {
+		private final List<Cursor> cursors;
+		private final SpillSerializer<K> keySerializer;
+		private final SpillSerializer<V> valueSerializer;
+		private PriorityQueue<Cursor> queue;
+		private byte[] groupKey = new byte[64];
+
+		private GroupSpliterator(List<Cursor> cursors, SpillSerializer<K> keySerializer, SpillSerializer<V> valueSerializer) {
+			super(Long.MAX_VALUE, Spliterator.DISTINCT | Spliterator.NONNULL);
+			this.cursors = cursors;
+			this.keySerializer = keySerializer;
+			this.valueSerializer = valueSerializer;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Map.Entry<K, List<V>>> action) {
+			try {
+				if(this.queue == null) {
+					ensureOpen();
+					this.queue = new PriorityQueue<>(Math.max(1, this.cursors.size()), SpillStore::compareRecords);
+					for(Cursor cursor : this.cursors) {
+						if(cursor.next()) {
+							this.queue.add(cursor);
+						}
+					}
+				}
+				Cursor first = this.queue.poll();
+				if(first == null) {
+					close();
+					return false;
+				}
+				int hash = first.hash;
+				int keyLength = first.keyLength;
+				if(this.groupKey.length < keyLength) {
+					this.groupKey = new byte[Math.max(keyLength, 2 * this.groupKey.length)];
+				}
+				System.arraycopy(first.array, first.keyOffset, this.groupKey, 0, keyLength);
+				K key = this.keySerializer.read(ByteBuffer.wrap(first.array, first.keyOffset, keyLength));
+
+				List<V> values = this.valueSerializer == null ? Collections.emptyList() : new ArrayList<>();
+				Cursor cursor = first;
+				while(true) {
+					if(this.valueSerializer != null) {
+						values.add(this.valueSerializer.read(ByteBuffer.wrap(cursor.array, cursor.valueOffset, cursor.valueLength)));
+					}
+					if(cursor.next()) {
+						this.queue.add(cursor);
+					}
+					cursor = this.queue.peek();
+					if(cursor == null || cursor.hash != hash
+							|| compare(cursor.array, cursor.keyOffset, cursor.keyLength, this.groupKey, 0, keyLength) != 0) {
+						break;
+					}
+					this.queue.poll();
+				}
+
+				action.accept(new AbstractMap.SimpleImmutableEntry<>(key, values));
+				return true;
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private static int compareRecords(Cursor a, Cursor b) {
+		if(a.hash != b.hash) {
+			return Integer.compare(a.hash, b.hash);
+		}
+		int result = compare(a.array, a.keyOffset, a.keyLength, b.array, b.keyOffset, b.keyLength);
+		return result != 0 ? result : Integer.compare(a.order, b.order);
+	}
+
+	/**
+	 * 부호 없는 byte 사전 순서
+	 */
+	private static int compare(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+		int length = Math.min(aLength, bLength);
+		for(int i = 0; i < length; i++) {
+			int result = (a[aOffset + i] & 0xFF) - (b[bOffset + i] & 0xFF);
+			if(result != 0) {
+				return result;
+			}
+		}
+		return aLength - bLength;
+	}
+
+	private static int hashOf(ByteBuffer key) {
+		return (int) (hash(key.array(), key.arrayOffset() + key.position(), key.remaining()) >>> 32);
+	}
+
+	/**
+	 * FNV-1a 64 + murmur3 finalizer. 상위 32bit 는 정렬, 전체는 BloomFilter 에 사용한다.
+	 */
+	static long hash(byte[] bytes, int offset, int length) {
+		long hash = 0xcbf29ce484222325L;
+		for(int i = offset, end = offset + length; i < end; i++) {
+			hash ^= bytes[i] & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private static int recordLength(byte[] array, int offset) {
+		int keyLength = getVarInt(array, offset + Integer.BYTES);
+		int valueIndex = offset + Integer.BYTES + varIntSize(keyLength) + keyLength;
+		int valueLength = getVarInt(array, valueIndex);
+		return valueIndex + varIntSize(valueLength) + valueLength - offset;
+	}
+
+	private static void putInt(byte[] array, int index, int value) {
+		array[index] = (byte) (value >>> 24);
+		array[index + 1] = (byte) (value >>> 16);
+		array[index + 2] = (byte) (value >>> 8);
+		array[index + 3] = (byte) value;
+	}
+
+	private static int getInt(byte[] array, int index) {
+		return array[index] << 24 | (array[index + 1] & 0xFF) << 16 | (array[index + 2] & 0xFF) << 8 | (array[index + 3] & 0xFF);
+	}
+
+	/**
+	 * @return 다음 위치
+	 */
+	private static int putVarInt(byte[] array, int index, int value) {
+		while((value & ~0x7F) != 0) {
+			array[index++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		array[index++] = (byte) value;
+		return index;
+	}
+
+	private static int getVarInt(byte[] array, int index) {
+		int value = 0;
+		for(int shift = 0; shift < 32; shift += 7) {
+			byte b = array[index++];
+			value |= (b & 0x7F) << shift;
+			if(b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalStateException("malformed varint");
+	}
+
+	private static int varIntSize(int value) {
+		return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.libedi.new_java_feature.java8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * 메모리 예산을 넘으면 디스크로 내리는 groupingBy / distinct Collector
+ * - Collectors.groupingBy() 는 모든 원소를 HashMap 에 담으므로 메모리보다 큰 데이터는 처리할 수 없다.
+ *   여기서는 원소를 직렬화해 예산만큼 모으고, 넘으면 key 의 hash 순으로 정렬한 run 을 임시 파일로 내린다.
+ * - 결과는 run 들을 병합하며 key 하나씩 읽는 Stream 이다. 한 key 의 원소만 메모리에 올린다.
+ * - 결과 Stream 은 임시 파일을 열고 있으므로, try-with-resources 로 닫아야 한다. (끝까지 읽어도 지워진다)
+ *   닫지 않고 버린 Stream 의 임시 파일은 GC 된 뒤나 JVM 종료 시에 지워지지만, 그때까지 파일과 channel 이 남는다.
+ * - accumulator / combiner 가 실패하면 (classifier, serializer 의 예외 포함) 그 저장소의 임시 파일을 바로 지운다.
+ * - key 의 순서는 hash 순이다. (HashMap 과 같이 순서가 없다고 볼 것) 같은 key 의 원소는 만난 순서를 유지한다.
+ * - key 는 직렬화한 byte 로 비교하므로, 같은 key 는 같은 byte 로 직렬화되어야 한다.
+ * - 예산은 accumulator 마다 적용된다. 병렬 stream 이면 thread 수 만큼 사용할 수 있다.
+ *
+ * <pre>
+ * try(Stream&lt;Map.Entry&lt;String, List&lt;Order&gt;&gt;&gt; groups = orders.collect(SpillingCollectors.groupingBy(
+ *         order -&gt; order.getMember().getAddress().getZipcode(),
+ *         SpillSerializer.strings(), SpillSerializer.objects(Order.class), 64 * 1024 * 1024))) {
+ *     groups.forEach(group -&gt; ...);
+ * }
+ * </pre>
+ * @author Sangjun, Park
+ *
+ */
+public final class SpillingCollectors {
+
+	public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+	/** distinct 의 BloomFilter 오탐률 */
+	static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+	private static final long MAX_MEMORY_BUDGET = Integer.MAX_VALUE - 8;
+
+	private SpillingCollectors() {
+	}
+
+	public static <T, K> Collector<T, ?, Stream<Map.Entry<K, List<T>>>> groupingBy(Function<? super T, ? extends K> classifier,
+			SpillSerializer<K> keySerializer, SpillSerializer<T> valueSerializer) {
+		return groupingBy(classifier, keySerializer, valueSerializer, DEFAULT_MEMORY_BUDGET, null);
+	}
+
+	public static <T, K> Collector<T, ?, Stream<Map.Entry<K, List<T>>>> groupingBy(Function<? super T, ? extends K> classifier,
+			SpillSerializer<K> keySerializer, SpillSerializer<T> valueSerializer, long memoryBudget) {
+		return groupingBy(classifier, keySerializer, valueSerializer, memoryBudget, null);
+	}
+
+	/**
+	 * @param classifier null 을 반환하면 NullPointerException (Collectors.groupingBy 와 동일)
+	 * @param keySerializer
+	 * @param valueSerializer
+	 * @param memoryBudget byte
+	 * @param directory 임시 파일 위치. null 이면 시스템 기본 위치
+	 * @return (key, 원소 목록) 의 Stream
+	 */
+	public static <T, K> Collector<T, ?, Stream<Map.Entry<K, List<T>>>> groupingBy(Function<? super T, ? extends K> classifier,
+			SpillSerializer<K> keySerializer, SpillSerializer<T> valueSerializer, long memoryBudget, Path directory) {
+		Objects.requireNonNull(classifier, "classifier");
+		Objects.requireNonNull(keySerializer, "keySerializer");
+		Objects.requireNonNull(valueSerializer, "valueSerializer");
+		int budget = checkBudget(memoryBudget);
+		return Collector.of(
+				() -> new SpillStore(directory, budget, false, null),
+				(store, element) -> {
+					try {
+						K key = Objects.requireNonNull(classifier.apply(element), "element cannot be mapped to a null key");
+						store.add(keySerializer, key, valueSerializer, element);
+					} catch(IOException e) {
+						store.closeOnFailure(e);
+						throw new UncheckedIOException(e);
+					} catch(RuntimeException | Error e) {
+						store.closeOnFailure(e);
+						throw e;
+					}
+				},
+				SpillingCollectors::combine,
+				store -> store.groups(keySerializer, valueSerializer));
+	}
+
+	public static <T> Collector<T, ?, Stream<T>> distinct(SpillSerializer<T> serializer, long memoryBudget) {
+		return distinct(serializer, memoryBudget, 0, null);
+	}
+
+	public static <T> Collector<T, ?, Stream<T>> distinct(SpillSerializer<T> serializer, long memoryBudget, long expectedDistinct) {
+		return distinct(serializer, memoryBudget, expectedDistinct, null);
+	}
+
+	/**
+	 * 중복을 뺀 원소의 Stream
+	 * - 원소를 바로 중복 확인해 처음 보는 원소만 저장한다. 메모리에 없으면 내려 둔 run 을 찾아본다. (disk 조회)
+	 * - expectedDistinct 가 있으면 BloomFilter (오탐률 1%) 로 처음 보는 원소는 disk 조회 없이 추가한다.
+	 *   BloomFilter 는 expectedDistinct 개 당 약 1.2 byte 를 예산과 별도로 사용한다.
+	 * - null 원소는 허용하지 않는다.
+	 * @param serializer
+	 * @param memoryBudget byte
+	 * @param expectedDistinct 예상하는 서로 다른 원소 수. 0 이하이면 BloomFilter 를 사용하지 않는다.
+	 * @param directory 임시 파일 위치. null 이면 시스템 기본 위치
+	 * @return
+	 */
+	public static <T> Collector<T, ?, Stream<T>> distinct(SpillSerializer<T> serializer, long memoryBudget, long expectedDistinct,
+			Path directory) {
+		Objects.requireNonNull(serializer, "serializer");
+		int budget = checkBudget(memoryBudget);
+		return Collector.of(
+				() -> new SpillStore(directory, budget, true,
+						expectedDistinct > 0 ? new BloomFilter(expectedDistinct, BLOOM_FALSE_POSITIVE_RATE) : null),
+				(store, element) -> {
+					try {
+						Objects.requireNonNull(element, "element");
+						store.addUnique(serializer, element);
+					} catch(IOException e) {
+						store.closeOnFailure(e);
+						throw new UncheckedIOException(e);
+					} catch(RuntimeException | Error e) {
+						store.closeOnFailure(e);
+						throw e;
+					}
+				},
+				SpillingCollectors::combine,
+				store -> store.groups(serializer, null).map(Map.Entry::getKey));
+	}
+
+	private static int checkBudget(long memoryBudget) {
+		if(memoryBudget < SpillStore.MIN_MEMORY_BUDGET || memoryBudget > MAX_MEMORY_BUDGET) {
+			throw new IllegalArgumentException("memoryBudget must be between " + SpillStore.MIN_MEMORY_BUDGET
+					+ " and " + MAX_MEMORY_BUDGET + ": " + memoryBudget);
+		}
+		return (int) memoryBudget;
+	}
+
+	private static SpillStore combine(SpillStore left, SpillStore right) {
+		try {
+			left.addAll(right);
+			return left;
+		} catch(IOException e) {
+			left.closeOnFailure(e);
+			right.closeOnFailure(e);
+			throw new UncheckedIOException(e);
+		} catch(RuntimeException | Error e) {
+			left.closeOnFailure(e);
+			right.closeOnFailure(e);
+			throw e;
+		}
+	}
+
+}
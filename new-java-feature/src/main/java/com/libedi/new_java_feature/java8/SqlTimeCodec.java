@@ -0,0 +1,359 @@
+package com.libedi.new_java_feature.java8;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * ANSI SQL 날짜/시간 타입의 binary codec
+ * --------------------------------------------------------------------------
+ * | ANSI SQL                | Java 8         | 인코딩                        |
+ * |------------------------------------------------------------------------|
+ * | DATE                    | LocalDate      | day                           |
+ * | TIME                    | LocalTime      | time                          |
+ * | TIMESTAMP               | LocalDateTime  | day + time                    |
+ * | TIME WITH TIMEZONE      | OffsetTime     | time + offset                 |
+ * | TIMESTAMP WITH TIMEZONE | OffsetDateTime | day + time + offset           |
+ * --------------------------------------------------------------------------
+ * - day : epoch day 를 zigzag varint 로 기록. (최근 날짜는 3 byte)
+ * - time : nano of day 를 초/밀리초/마이크로초/나노초 중 나누어 떨어지는 가장 큰 단위로 줄이고,
+ *          하위 2bit 에 단위를 넣어 varint 로 기록. (초 단위는 3 byte, 밀리초 단위는 4 byte)
+ * - offset : 15분 단위이면 1 byte. 아니면 OFFSET_IN_SECONDS 뒤에 초 단위 zigzag varint.
+ * - ISO 문자열(예: 2018-09-21T13:42:30.123+09:00, 29 byte) 대비 OffsetDateTime 은 8 byte.
+ * - 배열은 컬럼 형식으로 기록한다 : 개수, null bitmap, day 열(이전 값과의 차이), time 열, offset 열
+ * @author Sangjun, Park
+ *
+ */
+public final class SqlTimeCodec {
+
+	/** 15분 단위가 아닌 offset 표시 */
+	static final byte OFFSET_IN_SECONDS = Byte.MIN_VALUE;
+
+	private static final int OFFSET_UNIT_SECONDS = 15 * 60;
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+	private static final long NANOS_PER_MILLI = 1_000_000L;
+	private static final long NANOS_PER_MICRO = 1_000L;
+
+	private SqlTimeCodec() {
+	}
+
+	/*
+	 * 단일 값
+	 */
+	public static void writeDate(ByteBuffer buffer, LocalDate value) {
+		writeSignedVarLong(buffer, value.toEpochDay());
+	}
+
+	public static LocalDate readDate(ByteBuffer buffer) {
+		return LocalDate.ofEpochDay(readSignedVarLong(buffer));
+	}
+
+	public static void writeTime(ByteBuffer buffer, LocalTime value) {
+		writeVarLong(buffer, encodeNanoOfDay(value.toNanoOfDay()));
+	}
+
+	public static LocalTime readTime(ByteBuffer buffer) {
+		return LocalTime.ofNanoOfDay(decodeNanoOfDay(readVarLong(buffer)));
+	}
+
+	public static void writeTimestamp(ByteBuffer buffer, LocalDateTime value) {
+		writeDate(buffer, value.toLocalDate());
+		writeTime(buffer, value.toLocalTime());
+	}
+
+	public static LocalDateTime readTimestamp(ByteBuffer buffer) {
+		LocalDate date = readDate(buffer);
+		return LocalDateTime.of(date, readTime(buffer));
+	}
+
+	public static void writeTimeWithTimezone(ByteBuffer buffer, OffsetTime value) {
+		writeTime(buffer, value.toLocalTime());
+		writeOffset(buffer, value.getOffset().getTotalSeconds());
+	}
+
+	public static OffsetTime readTimeWithTimezone(ByteBuffer buffer) {
+		LocalTime time = readTime(buffer);
+		return OffsetTime.of(time, ZoneOffset.ofTotalSeconds(readOffset(buffer)));
+	}
+
+	public static void writeTimestampWithTimezone(ByteBuffer buffer, OffsetDateTime value) {
+		writeTimestamp(buffer, value.toLocalDateTime());
+		writeOffset(buffer, value.getOffset().getTotalSeconds());
+	}
+
+	public static OffsetDateTime readTimestampWithTimezone(ByteBuffer buffer) {
+		LocalDateTime dateTime = readTimestamp(buffer);
+		return OffsetDateTime.of(dateTime, ZoneOffset.ofTotalSeconds(readOffset(buffer)));
+	}
+
+	/*
+	 * 컬럼 (배열). null 허용.
+	 */
+	public static void writeDates(ByteBuffer buffer, LocalDate[] values) {
+		writeColumn(buffer, values, LocalDate::toEpochDay, null, null);
+	}
+
+	public static LocalDate[] readDates(ByteBuffer buffer) {
+		return readColumn(buffer, LocalDate[]::new, true, false, false,
+				(day, nanos, offset) -> LocalDate.ofEpochDay(day));
+	}
+
+	public static void writeTimes(ByteBuffer buffer, LocalTime[] values) {
+		writeColumn(buffer, values, null, LocalTime::toNanoOfDay, null);
+	}
+
+	public static LocalTime[] readTimes(ByteBuffer buffer) {
+		return readColumn(buffer, LocalTime[]::new, false, true, false,
+				(day, nanos, offset) -> LocalTime.ofNanoOfDay(nanos));
+	}
+
+	public static void writeTimestamps(ByteBuffer buffer, LocalDateTime[] values) {
+		writeColumn(buffer, values, v -> v.toLocalDate().toEpochDay(), v -> v.toLocalTime().toNanoOfDay(), null);
+	}
+
+	public static LocalDateTime[] readTimestamps(ByteBuffer buffer) {
+		return readColumn(buffer, LocalDateTime[]::new, true, true, false,
+				(day, nanos, offset) -> LocalDateTime.of(LocalDate.ofEpochDay(day), LocalTime.ofNanoOfDay(nanos)));
+	}
+
+	public static void writeTimesWithTimezone(ByteBuffer buffer, OffsetTime[] values) {
+		writeColumn(buffer, values, null, v -> v.toLocalTime().toNanoOfDay(), v -> v.getOffset().getTotalSeconds());
+	}
+
+	public static OffsetTime[] readTimesWithTimezone(ByteBuffer buffer) {
+		return readColumn(buffer, OffsetTime[]::new, false, true, true,
+				(day, nanos, offset) -> OffsetTime.of(LocalTime.ofNanoOfDay(nanos), ZoneOffset.ofTotalSeconds(offset)));
+	}
+
+	public static void writeTimestampsWithTimezone(ByteBuffer buffer, OffsetDateTime[] values) {
+		writeColumn(buffer, values, v -> v.toLocalDate().toEpochDay(), v -> v.toLocalTime().toNanoOfDay(),
+				v -> v.getOffset().getTotalSeconds());
+	}
+
+	public static OffsetDateTime[] readTimestampsWithTimezone(ByteBuffer buffer) {
+		return readColumn(buffer, OffsetDateTime[]::new, true, true, true,
+				(day, nanos, offset) -> OffsetDateTime.of(LocalDate.ofEpochDay(day), LocalTime.ofNanoOfDay(nanos),
+						ZoneOffset.ofTotalSeconds(offset)));
+	}
+
+	@FunctionalInterface
+	private static interface Decoder<T> {
+		T decode(long epochDay, long nanoOfDay, int offsetSeconds);
+	}
+
+	/**
+	 * 개수 | null bitmap | day 열 | time 열 | offset 열
+	 */
+	private static <T> void writeColumn(ByteBuffer buffer, T[] values, ToLongFunction<T> epochDay,
+			ToLongFunction<T> nanoOfDay, ToIntFunction<T> offsetSeconds) {
+		writeVarLong(buffer, values.length);
+		int bits = 0;
+		for(int i = 0; i < values.length; i++) {
+			if(values[i] != null) {
+				bits |= 1 << (i & 7);
+			}
+			if((i & 7) == 7) {
+				buffer.put((byte) bits);
+				bits = 0;
+			}
+		}
+		if((values.length & 7) != 0) {
+			buffer.put((byte) bits);
+		}
+		if(epochDay != null) {
+			// 정렬되었거나 가까운 날짜는 차이가 작다.
+			long previous = 0;
+			for(T value : values) {
+				if(value != null) {
+					long day = epochDay.applyAsLong(value);
+					writeSignedVarLong(buffer, day - previous);
+					previous = day;
+				}
+			}
+		}
+		if(nanoOfDay != null) {
+			for(T value : values) {
+				if(value != null) {
+					writeVarLong(buffer, encodeNanoOfDay(nanoOfDay.applyAsLong(value)));
+				}
+			}
+		}
+		if(offsetSeconds != null) {
+			for(T value : values) {
+				if(value != null) {
+					writeOffset(buffer, offsetSeconds.applyAsInt(value));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 열마다 임시 배열을 만들지 않고, 앞의 열을 건너뛰어 각 열의 시작 위치를 찾은 뒤 세 위치에서 번갈아 읽는다.
+	 * - 할당은 결과 배열과 값 객체뿐이다.
+	 */
+	private static <T> T[] readColumn(ByteBuffer buffer, IntFunction<T[]> arrayFactory,
+			boolean hasDay, boolean hasTime, boolean hasOffset, Decoder<T> decoder) {
+		long length = readVarLong(buffer);
+		if(length < 0 || length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid column length: " + length);
+		}
+		int count = (int) length;
+		// count 가 Integer.MAX_VALUE 에 가까워도 넘치지 않는다.
+		int bitmapSize = (count >>> 3) + ((count & 7) != 0 ? 1 : 0);
+		int bitmapPosition = buffer.position();
+		if(buffer.remaining() < bitmapSize) {
+			throw new BufferUnderflowException();
+		}
+		int present = 0;
+		for(int i = 0; i < bitmapSize; i++) {
+			present += Integer.bitCount(buffer.get(bitmapPosition + i) & 0xFF);
+		}
+
+		buffer.position(bitmapPosition + bitmapSize);
+		int dayPosition = buffer.position();
+		if(hasDay) {
+			skipVarLongs(buffer, present);
+		}
+		int timePosition = buffer.position();
+		if(hasTime) {
+			skipVarLongs(buffer, present);
+		}
+		int offsetPosition = buffer.position();
+		if(hasOffset) {
+			for(int i = 0; i < present; i++) {
+				if(buffer.get() == OFFSET_IN_SECONDS) {
+					skipVarLongs(buffer, 1);
+				}
+			}
+		}
+		int end = buffer.position();
+
+		T[] values = arrayFactory.apply(count);
+		long day = 0;
+		for(int i = 0; i < count; i++) {
+			if((buffer.get(bitmapPosition + (i >>> 3)) & (1 << (i & 7))) == 0) {
+				continue;
+			}
+			long nanos = 0;
+			int offset = 0;
+			if(hasDay) {
+				buffer.position(dayPosition);
+				day += readSignedVarLong(buffer);
+				dayPosition = buffer.position();
+			}
+			if(hasTime) {
+				buffer.position(timePosition);
+				nanos = decodeNanoOfDay(readVarLong(buffer));
+				timePosition = buffer.position();
+			}
+			if(hasOffset) {
+				buffer.position(offsetPosition);
+				offset = readOffset(buffer);
+				offsetPosition = buffer.position();
+			}
+			values[i] = decoder.decode(day, nanos, offset);
+		}
+		buffer.position(end);
+		return values;
+	}
+
+	private static void skipVarLongs(ByteBuffer buffer, int count) {
+		for(int i = 0; i < count; i++) {
+			while(buffer.get() < 0) {
+				// 최상위 bit 가 없는 byte 까지
+			}
+		}
+	}
+
+	/**
+	 * 나누어 떨어지는 가장 큰 단위로 줄이고, 하위 2bit 에 단위를 기록한다.
+	 */
+	static long encodeNanoOfDay(long nanoOfDay) {
+		if(nanoOfDay % NANOS_PER_SECOND == 0) {
+			return (nanoOfDay / NANOS_PER_SECOND) << 2;
+		}
+		if(nanoOfDay % NANOS_PER_MILLI == 0) {
+			return (nanoOfDay / NANOS_PER_MILLI) << 2 | 1;
+		}
+		if(nanoOfDay % NANOS_PER_MICRO == 0) {
+			return (nanoOfDay / NANOS_PER_MICRO) << 2 | 2;
+		}
+		return nanoOfDay << 2 | 3;
+	}
+
+	static long decodeNanoOfDay(long encoded) {
+		long value = encoded >>> 2;
+		switch((int) (encoded & 3)) {
+			case 0:
+				return value * NANOS_PER_SECOND;
+			case 1:
+				return value * NANOS_PER_MILLI;
+			case 2:
+				return value * NANOS_PER_MICRO;
+			default:
+				return value;
+		}
+	}
+
+	static void writeOffset(ByteBuffer buffer, int offsetSeconds) {
+		if(offsetSeconds % OFFSET_UNIT_SECONDS == 0) {
+			// ±18시간 = ±72 단위
+			buffer.put((byte) (offsetSeconds / OFFSET_UNIT_SECONDS));
+		} else {
+			buffer.put(OFFSET_IN_SECONDS);
+			writeSignedVarLong(buffer, offsetSeconds);
+		}
+	}
+
+	static int readOffset(ByteBuffer buffer) {
+		byte units = buffer.get();
+		if(units == OFFSET_IN_SECONDS) {
+			return (int) readSignedVarLong(buffer);
+		}
+		return units * OFFSET_UNIT_SECONDS;
+	}
+
+	/**
+	 * 7bit 씩 기록하고, 최상위 bit 로 다음 byte 가 있는지 표시한다.
+	 */
+	static void writeVarLong(ByteBuffer buffer, long value) {
+		while((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	static long readVarLong(ByteBuffer buffer) {
+		long result = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			byte b = buffer.get();
+			result |= (long) (b & 0x7F) << shift;
+			if(b >= 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	/**
+	 * zigzag : 절대값이 작은 음수도 짧게 기록된다. (0 -&gt; 0, -1 -&gt; 1, 1 -&gt; 2, ...)
+	 */
+	static void writeSignedVarLong(ByteBuffer buffer, long value) {
+		writeVarLong(buffer, (value << 1) ^ (value >> 63));
+	}
+
+	static long readSignedVarLong(ByteBuffer buffer) {
+		long encoded = readVarLong(buffer);
+		return (encoded >>> 1) ^ -(encoded & 1);
+	}
+
+}
@@ -0,0 +1,258 @@
+package com.libedi.new_java_feature.java8;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * 문자열 규칙 (선언형 Predicate)
+ * - t -&gt; t.length() &gt; 10 같은 람다 대신, 구조를 알 수 있는 규칙으로 만든다.
+ * - 단독으로 Predicate 로 사용할 수 있고, 여러 규칙은 PredicateIndex 로 한 번에 평가한다.
+ * - 값 객체이므로 같은 구조의 규칙은 equals() 가 true 이다.
+ *
+ * <pre>
+ * StringRule rule = StringRule.length(Comparison.GT, 10).and(StringRule.startsWith("http"));
+ * boolean result = rule.test("https://github.com");
+ * </pre>
+ * @author Sangjun, Park
+ *
+ */
+public abstract class StringRule implements Predicate<String> {
+
+	public static enum Comparison {
+		LT, LE, EQ, NE, GE, GT;
+
+		boolean test(int left, int right) {
+			switch(this) {
+				case LT:
+					return left < right;
+				case LE:
+					return left <= right;
+				case EQ:
+					return left == right;
+				case NE:
+					return left != right;
+				case GE:
+					return left >= right;
+				default:
+					return left > right;
+			}
+		}
+	}
+
+	StringRule() {
+	}
+
+	/**
+	 * t.length() {comparison} value
+	 */
+	public static StringRule length(Comparison comparison, int value) {
+		return new Length(comparison, value);
+	}
+
+	public static StringRule startsWith(String prefix) {
+		return new StartsWith(prefix);
+	}
+
+	public static StringRule equalTo(String value) {
+		return new EqualTo(value);
+	}
+
+	public static StringRule contains(String value) {
+		return new Contains(value);
+	}
+
+	public static StringRule allOf(StringRule... rules) {
+		return new Composite(Composite.AND, rules);
+	}
+
+	public static StringRule anyOf(StringRule... rules) {
+		return new Composite(Composite.OR, rules);
+	}
+
+	public StringRule and(StringRule other) {
+		return allOf(this, other);
+	}
+
+	public StringRule or(StringRule other) {
+		return anyOf(this, other);
+	}
+
+	@Override
+	public StringRule negate() {
+		return new Not(this);
+	}
+
+	/*
+	 * 규칙 종류. PredicateIndex 에서 종류별로 색인한다.
+	 */
+	static final class Length extends StringRule {
+		final Comparison comparison;
+		final int value;
+
+		Length(Comparison comparison, int value) {
+			this.comparison = Objects.requireNonNull(comparison, "comparison");
+			this.value = value;
+		}
+
+		@Override
+		public boolean test(String t) {
+			return this.comparison.test(t.length(), this.value);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Length)) {
+				return false;
+			}
+			Length other = (Length) obj;
+			return this.comparison == other.comparison && this.value == other.value;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.comparison.hashCode() * 31 + this.value;
+		}
+
+		@Override
+		public String toString() {
+			return "length " + this.comparison + " " + this.value;
+		}
+	}
+
+	abstract static class Text extends StringRule {
+		final String text;
+
+		Text(String text) {
+			this.text = Objects.requireNonNull(text, "text");
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj != null && obj.getClass() == getClass() && this.text.equals(((Text) obj).text);
+		}
+
+		@Override
+		public int hashCode() {
+			return getClass().hashCode() * 31 + this.text.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + "(\"" + this.text + "\")";
+		}
+	}
+
+	static final class StartsWith extends Text {
+		StartsWith(String prefix) {
+			super(prefix);
+		}
+
+		@Override
+		public boolean test(String t) {
+			return t.startsWith(this.text);
+		}
+	}
+
+	static final class EqualTo extends Text {
+		EqualTo(String value) {
+			super(value);
+		}
+
+		@Override
+		public boolean test(String t) {
+			return t.equals(this.text);
+		}
+	}
+
+	static final class Contains extends Text {
+		Contains(String value) {
+			super(value);
+		}
+
+		@Override
+		public boolean test(String t) {
+			return t.contains(this.text);
+		}
+	}
+
+	static final class Composite extends StringRule {
+		static final boolean AND = true;
+		static final boolean OR = false;
+
+		final boolean and;
+		final List<StringRule> rules;
+
+		Composite(boolean and, StringRule[] rules) {
+			if(rules.length == 0) {
+				throw new IllegalArgumentException("rules must not be empty");
+			}
+			for(StringRule rule : rules) {
+				Objects.requireNonNull(rule, "rule");
+			}
+			this.and = and;
+			this.rules = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(rules)));
+		}
+
+		@Override
+		public boolean test(String t) {
+			for(StringRule rule : this.rules) {
+				if(rule.test(t) != this.and) {
+					return !this.and;
+				}
+			}
+			return this.and;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Composite)) {
+				return false;
+			}
+			Composite other = (Composite) obj;
+			return this.and == other.and && this.rules.equals(other.rules);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.rules.hashCode() * 31 + (this.and ? 1 : 0);
+		}
+
+		@Override
+		public String toString() {
+			return (this.and ? "allOf" : "anyOf") + this.rules;
+		}
+	}
+
+	static final class Not extends StringRule {
+		final StringRule rule;
+
+		Not(StringRule rule) {
+			this.rule = Objects.requireNonNull(rule, "rule");
+		}
+
+		@Override
+		public boolean test(String t) {
+			return !this.rule.test(t);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Not && this.rule.equals(((Not) obj).rule);
+		}
+
+		@Override
+		public int hashCode() {
+			return ~this.rule.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return "not(" + this.rule + ")";
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.libedi.new_java_feature.java8;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 시간 구간(bucket)별 이벤트 카운터
+ * - LocalDateTime.truncatedTo(unit) 과 같은 구간으로 이벤트 수를 센다.
+ * - LocalDateTime 객체를 만들지 않고, epoch millisecond 를 나눗셈으로 구간 번호로 바꾼다.
+ * - 최근 bucketCount 개의 구간만 ring 으로 보관하며, 구간마다 LongAdder 를 사용하므로 여러 스레드가 동시에 기록해도 lock 경합이 없다.
+ * - 오래된 구간은 새 구간이 기록될 때 CAS 로 교체된다. (lock-free rollover)
+ * @author Sangjun, Park
+ *
+ */
+public class TimeBucketCounter {
+
+	private final long bucketMillis;
+	private final long offsetMillis;
+	private final AtomicReferenceArray<Bucket> buckets;
+	private final LongAdder dropped = new LongAdder();
+
+	public TimeBucketCounter(ChronoUnit unit, int bucketCount) {
+		this(unit, bucketCount, ZoneOffset.UTC);
+	}
+
+	/**
+	 * @param unit 구간 단위. MINUTES, HOURS, DAYS
+	 * @param bucketCount 보관할 구간 수
+	 * @param offset LocalDateTime 으로 변환할 때의 offset
+	 */
+	public TimeBucketCounter(ChronoUnit unit, int bucketCount, ZoneOffset offset) {
+		if(unit != ChronoUnit.MINUTES && unit != ChronoUnit.HOURS && unit != ChronoUnit.DAYS) {
+			throw new IllegalArgumentException("Unsupported unit: " + unit);
+		}
+		if(bucketCount < 1) {
+			throw new IllegalArgumentException("bucketCount must be positive: " + bucketCount);
+		}
+		this.bucketMillis = unit.getDuration().toMillis();
+		this.offsetMillis = offset.getTotalSeconds() * 1000L;
+		this.buckets = new AtomicReferenceArray<>(bucketCount);
+	}
+
+	public void record(long epochMillis) {
+		record(epochMillis, 1);
+	}
+
+	/**
+	 * 이벤트 기록
+	 * - 보관 범위보다 오래된 이벤트는 버려지고 droppedCount() 에 더해진다.
+	 *   기록하는 동안 그 구간이 새 구간으로 교체된 경우도 마찬가지다.
+	 * @param epochMillis
+	 * @param count
+	 */
+	public void record(long epochMillis, long count) {
+		long id = bucketId(epochMillis);
+		int slot = (int) Math.floorMod(id, (long) this.buckets.length());
+		while(true) {
+			Bucket bucket = this.buckets.get(slot);
+			if(bucket != null) {
+				if(bucket.id == id) {
+					bucket.count.add(count);
+					// 더하는 동안 새 구간으로 교체되었으면, 교체된 구간은 더 이상 보이지 않으므로 버려진 것으로 센다.
+					if(this.buckets.get(slot) != bucket) {
+						this.dropped.add(count);
+					}
+					return;
+				}
+				if(bucket.id > id) {
+					this.dropped.add(count);
+					return;
+				}
+			}
+			// 빈 slot 이거나 오래된 구간 : 새 구간으로 교체
+			Bucket newBucket = new Bucket(id);
+			newBucket.count.add(count);
+			if(this.buckets.compareAndSet(slot, bucket, newBucket)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * epochMillis 가 속한 구간의 이벤트 수. 보관 중이 아니면 0.
+	 * @param epochMillis
+	 * @return
+	 */
+	public long count(long epochMillis) {
+		long id = bucketId(epochMillis);
+		Bucket bucket = this.buckets.get((int) Math.floorMod(id, (long) this.buckets.length()));
+		return bucket != null && bucket.id == id ? bucket.count.sum() : 0;
+	}
+
+	/**
+	 * epochMillis 가 속한 구간의 시작 시각 (epoch millisecond)
+	 * @param epochMillis
+	 * @return
+	 */
+	public long bucketStart(long epochMillis) {
+		return bucketId(epochMillis) * this.bucketMillis - this.offsetMillis;
+	}
+
+	/**
+	 * 보관 중인 구간별 이벤트 수.
+	 * key 는 LocalDateTime.truncatedTo(unit) 과 같은 구간 시작 시각.
+	 * @return
+	 */
+	public SortedMap<LocalDateTime, Long> snapshot() {
+		SortedMap<LocalDateTime, Long> snapshot = new TreeMap<>();
+		for(int i = 0; i < this.buckets.length(); i++) {
+			Bucket bucket = this.buckets.get(i);
+			if(bucket != null) {
+				// bucket.id 는 offset 이 적용된 local 시각 기준이다.
+				LocalDateTime start = LocalDateTime.ofEpochSecond(bucket.id * this.bucketMillis / 1000L, 0, ZoneOffset.UTC);
+				snapshot.put(start, bucket.count.sum());
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * 보관 범위보다 오래되어 버려진 이벤트 수
+	 * @return
+	 */
+	public long droppedCount() {
+		return this.dropped.sum();
+	}
+
+	private long bucketId(long epochMillis) {
+		return Math.floorDiv(epochMillis + this.offsetMillis, this.bucketMillis);
+	}
+
+	private static class Bucket {
+		private final long id;
+		private final LongAdder count = new LongAdder();
+
+		Bucket(long id) {
+			this.id = id;
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.libedi.new_java_feature.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 예외 발생 JFR 이벤트
+ * - MultiExceptionClass 처럼 예외를 던지기 직전에 기록한다.
+ * - 시간 구간이 없는 이벤트이므로 threshold 는 적용되지 않는다.
+ * @author Sangjun, Park
+ *
+ */
+@Name(ExceptionThrowEvent.NAME)
+@Label("Exception Throw")
+@Description("Exception thrown by the project code")
+@Category({"New Java Feature", "Exception"})
+public class ExceptionThrowEvent extends Event {
+
+	public static final String NAME = "com.libedi.ExceptionThrow";
+
+	@Label("Exception Class")
+	private Class<?> exceptionClass;
+
+	@Label("Message")
+	private String message;
+
+	/**
+	 * 예외 발생 기록
+	 * @param exception
+	 * @return exception
+	 */
+	public static <X extends Throwable> X record(X exception) {
+		ExceptionThrowEvent event = new ExceptionThrowEvent();
+		if(event.isEnabled()) {
+			event.exceptionClass = exception.getClass();
+			event.message = exception.getMessage();
+			event.commit();
+		}
+		return exception;
+	}
+
+}
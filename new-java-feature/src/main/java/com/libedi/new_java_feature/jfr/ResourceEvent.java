@@ -0,0 +1,62 @@
+package com.libedi.new_java_feature.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 자원 획득/사용/해제 JFR 이벤트
+ * - Resource.use(), close(), getResource() 에서 기록한다.
+ * - 기록하지 않을 때(JFR 비활성)는 begin()/commit() 이 아무 일도 하지 않는다.
+ * @author Sangjun, Park
+ *
+ */
+@Name(ResourceEvent.NAME)
+@Label("Resource Lifecycle")
+@Description("Resource acquire, use and close")
+@Category({"New Java Feature", "Resource"})
+@StackTrace(false)
+@Threshold("10 ms")
+public class ResourceEvent extends Event {
+
+	public static final String NAME = "com.libedi.ResourceLifecycle";
+
+	public static final String ACQUIRE = "acquire";
+	public static final String USE = "use";
+	public static final String CLOSE = "close";
+
+	@Label("Operation")
+	private String operation;
+
+	@Label("Resource Class")
+	private Class<?> resourceClass;
+
+	/**
+	 * 이벤트 시작
+	 * @param operation ACQUIRE, USE, CLOSE
+	 * @return
+	 */
+	public static ResourceEvent start(String operation) {
+		ResourceEvent event = new ResourceEvent();
+		event.begin();
+		event.operation = operation;
+		return event;
+	}
+
+	/**
+	 * 이벤트 종료. threshold 를 넘긴 경우에만 기록된다.
+	 * @param resourceClass
+	 */
+	public void finish(Class<?> resourceClass) {
+		end();
+		if(shouldCommit()) {
+			this.resourceClass = resourceClass;
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.libedi.new_java_feature.jfr;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Stream 파이프라인 실행 JFR 이벤트
+ * - 원본 Stream 을 만든 시점부터 close() 까지를 기록하며, 그동안 원본에서 나온 요소 수를 함께 기록한다.
+ * - OrderLoader.load() 가 반환하는 Stream 에서 기록한다.
+ * - JFR 이 비활성이면 요소 수를 세지 않고 원본 Stream 을 그대로 사용한다.
+ * @author Sangjun, Park
+ *
+ */
+@Name(StreamPipelineEvent.NAME)
+@Label("Stream Pipeline")
+@Description("Stream pipeline execution with element count")
+@Category({"New Java Feature", "Stream"})
+@Threshold("10 ms")
+public class StreamPipelineEvent extends Event {
+
+	public static final String NAME = "com.libedi.StreamPipeline";
+
+	@Label("Pipeline")
+	private String pipeline;
+
+	@Label("Element Count")
+	private long elementCount;
+
+	@Label("Parallel")
+	private boolean parallel;
+
+	/**
+	 * 원본 Stream 의 close() 에서 이벤트를 기록하도록 한다. threshold 를 넘긴 경우에만 기록된다.
+	 * - close() 하지 않은 Stream 은 기록되지 않는다.
+	 * @param pipeline 파이프라인 이름
+	 * @param source 원본 스트림
+	 * @return 요소 수를 세는 스트림. JFR 이 비활성이면 source
+	 */
+	public static <T> Stream<T> track(String pipeline, Stream<T> source) {
+		StreamPipelineEvent event = new StreamPipelineEvent();
+		if(!event.isEnabled()) {
+			return source;
+		}
+		boolean parallel = source.isParallel();
+		LongAdder count = new LongAdder();
+		event.begin();
+		return source.peek(t -> count.increment()).onClose(() -> {
+			event.end();
+			if(event.shouldCommit()) {
+				event.pipeline = pipeline;
+				event.elementCount = count.sum();
+				event.parallel = parallel;
+				event.commit();
+			}
+		});
+	}
+
+}
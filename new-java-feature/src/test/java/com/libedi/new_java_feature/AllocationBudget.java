@@ -0,0 +1,27 @@
+package com.libedi.new_java_feature;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메서드의 호출당 할당 허용량
+ * - AllocationBudgetRule 과 함께 사용한다.
+ * @author Sangjun, Park
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AllocationBudget {
+
+	/** 호출당 허용 byte 수 */
+	long bytesPerCall() default 0;
+
+	/** 측정 전 반복 횟수 (JIT 컴파일, escape analysis 적용을 위해) */
+	int warmUpIterations() default 20_000;
+
+	/** 측정 반복 횟수 */
+	int iterations() default 10_000;
+
+}
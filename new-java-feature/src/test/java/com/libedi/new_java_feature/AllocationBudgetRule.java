@@ -0,0 +1,126 @@
+package com.libedi.new_java_feature;
+
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * 호출당 할당량 검사 JUnit Rule
+ * - com.sun.management.ThreadMXBean.getThreadAllocatedBytes() 로 현재 스레드의 할당량을 측정한다.
+ * - 충분히 반복(warm up)한 후 측정하므로, JIT 의 escape analysis 로 제거되는 할당은 포함되지 않는다.
+ * - 반복 전체의 할당량을 (호출당 허용량 x 반복 횟수) 와 비교한다. 나누면 가끔 일어나는 할당이 0 으로 버려진다.
+ * - 다시 측정하지 않는다. 가끔 일어나는 할당도 이 Rule 이 찾아야 할 할당이다.
+ *
+ * <pre>
+ * &#64;Rule
+ * public AllocationBudgetRule allocation = new AllocationBudgetRule();
+ *
+ * &#64;Test
+ * &#64;AllocationBudget(bytesPerCall = 0)
+ * public void test_NoAllocation() throws Exception {
+ *     allocation.check(() -&gt; AsciiNumbers.parseInt(bytes, 0, 5));
+ * }
+ * </pre>
+ * @author Sangjun, Park
+ *
+ */
+public class AllocationBudgetRule implements TestRule {
+
+	private AllocationBudget budget;
+	private boolean checked;
+	/** JIT 가 결과를 버리지 않도록 연산 결과를 모은다. */
+	private long sink;
+
+	/**
+	 * 측정할 연산. 결과값은 JIT 가 연산을 제거하지 않도록 사용된다.
+	 */
+	@FunctionalInterface
+	public static interface Operation {
+		long run() throws Exception;
+	}
+
+	@Override
+	public Statement apply(Statement base, Description description) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				budget = description.getAnnotation(AllocationBudget.class);
+				checked = false;
+				base.evaluate();
+				if(budget != null && !checked) {
+					fail("@AllocationBudget test must call check(): " + description.getMethodName());
+				}
+			}
+		};
+	}
+
+	/**
+	 * 테스트 메서드의 @AllocationBudget 으로 연산의 호출당 할당량을 검사한다.
+	 * @param operation
+	 * @throws Exception
+	 */
+	public void check(Operation operation) throws Exception {
+		if(this.budget == null) {
+			throw new IllegalStateException("Test method must be annotated with @AllocationBudget");
+		}
+		this.checked = true;
+		int iterations = this.budget.iterations();
+		long allocated = measure(operation, this.budget.warmUpIterations(), iterations);
+		long limit = this.budget.bytesPerCall() * iterations;
+		if(allocated > limit) {
+			fail("Allocation budget exceeded: " + allocated + " bytes in " + iterations + " calls (budget: "
+					+ this.budget.bytesPerCall() + " bytes per call)");
+		}
+	}
+
+	/**
+	 * 연산을 iterations 번 호출하는 동안의 할당량 (byte)
+	 * @param operation
+	 * @param warmUpIterations
+	 * @param iterations
+	 * @return 반복 전체의 할당량
+	 * @throws Exception
+	 */
+	public long measure(Operation operation, int warmUpIterations, int iterations) throws Exception {
+		com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		run(operation, warmUpIterations);
+
+		// 측정 자체의 할당량
+		long before = threadMXBean.getThreadAllocatedBytes(threadId);
+		long overhead = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+		before = threadMXBean.getThreadAllocatedBytes(threadId);
+		run(operation, iterations);
+		long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before - overhead;
+		return Math.max(allocated, 0);
+	}
+
+	private void run(Operation operation, int iterations) throws Exception {
+		long result = 0;
+		for(int i = 0; i < iterations; i++) {
+			result += operation.run();
+		}
+		this.sink += result;
+	}
+
+	private static com.sun.management.ThreadMXBean threadMXBean() {
+		java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		assumeTrue("ThreadMXBean does not support allocation measurement",
+				threadMXBean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+		assumeTrue("Thread allocated memory measurement is not supported",
+				sunThreadMXBean.isThreadAllocatedMemorySupported());
+		if(!sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+			sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+		}
+		return sunThreadMXBean;
+	}
+
+}
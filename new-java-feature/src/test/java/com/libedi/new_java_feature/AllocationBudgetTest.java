@@ -0,0 +1,189 @@
+package com.libedi.new_java_feature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.libedi.new_java_feature.java7.ResourceScope;
+import com.libedi.new_java_feature.java8.AsciiNumbers;
+import com.libedi.new_java_feature.java8.LatencyRecorder;
+import com.libedi.new_java_feature.java8.Member;
+import com.libedi.new_java_feature.java8.ObjectCodec;
+import com.libedi.new_java_feature.java8.Order;
+import com.libedi.new_java_feature.java8.TimeBucketCounter;
+
+/**
+ * 호출당 할당량 검사
+ * - "더 저렴한 방법" 으로 만든 코드가 실제로 할당하지 않는지 검사한다.
+ * @author Sangjun, Park
+ *
+ */
+public class AllocationBudgetTest {
+
+	@Rule
+	public AllocationBudgetRule allocation = new AllocationBudgetRule();
+
+	private final byte[] number = "1234567890123".getBytes(StandardCharsets.US_ASCII);
+	private final String numberText = "##2147483647##";
+	private byte[] escaped;
+
+	/**
+	 * AsciiNumbers 는 할당하지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	@AllocationBudget(bytesPerCall = 0)
+	public void test_AsciiNumbers() throws Exception {
+		this.allocation.check(() -> AsciiNumbers.parseLong(this.number, 0, this.number.length)
+				+ AsciiNumbers.parseInt(this.numberText, 2, 12));
+	}
+
+	/**
+	 * Integer::parseInt 는 String 을 만들어야 하므로 할당한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_IntegerParseIntAllocates() throws Exception {
+		long allocated = this.allocation.measure(() -> Integer.parseInt(this.numberText.substring(2, 12)), 20_000, 10_000);
+		assertTrue("allocated: " + allocated, allocated > 10_000);
+	}
+
+	/**
+	 * 허용량을 넘으면 실패한다.
+	 * @throws Exception
+	 */
+	@Test(expected = AssertionError.class)
+	@AllocationBudget(bytesPerCall = 0)
+	public void test_BudgetExceeded() throws Exception {
+		this.allocation.check(() -> {
+			this.escaped = new byte[64];
+			return this.escaped.length;
+		});
+	}
+
+	/**
+	 * 가끔 할당하는 연산도 실패한다. (호출당 평균이 1 byte 보다 작아도)
+	 * @throws Exception
+	 */
+	@Test(expected = AssertionError.class)
+	@AllocationBudget(bytesPerCall = 0)
+	public void test_OccasionalAllocationExceeded() throws Exception {
+		int[] calls = new int[1];
+		this.allocation.check(() -> {
+			if(++calls[0] % 1_000 == 0) {
+				this.escaped = new byte[16];
+			}
+			return calls[0];
+		});
+	}
+
+	/**
+	 * TimeBucketCounter 는 같은 구간에 기록할 때 할당하지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	@AllocationBudget(bytesPerCall = 0)
+	public void test_TimeBucketCounter() throws Exception {
+		TimeBucketCounter counter = new TimeBucketCounter(ChronoUnit.DAYS, 2);
+		this.allocation.check(() -> {
+			counter.record(1_000L);
+			return 1;
+		});
+	}
+
+	/**
+	 * Optional.orElseGet() 은 값이 있으면 기본값을 만들지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	@AllocationBudget(bytesPerCall = 0)
+	public void test_OptionalOrElseGet() throws Exception {
+		Optional<String> present = Optional.of("present");
+		this.allocation.check(() -> present.orElseGet(() -> new String("default")).length());
+	}
+
+	/**
+	 * 자원이 4개 이하인 ResourceScope 는 범위 객체만 할당한다.
+	 * @throws Exception
+	 */
+	@Test
+	@AllocationBudget(bytesPerCall = 64)
+	public void test_ResourceScope() throws Exception {
+		long[] closed = new long[1];
+		AutoCloseable resource = () -> closed[0]++;
+		this.allocation.check(() -> {
+			try(ResourceScope scope = new ResourceScope(4)) {
+				scope.register(resource);
+				scope.register(resource);
+			}
+			return closed[0];
+		});
+		assertEquals(0, closed[0] % 2);
+	}
+
+	/**
+	 * close() 후 재사용하는 ResourceScope 는 할당하지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	@AllocationBudget(bytesPerCall = 0)
+	public void test_ReusedResourceScope() throws Exception {
+		long[] closed = new long[1];
+		AutoCloseable resource = () -> closed[0]++;
+		ResourceScope reused = new ResourceScope(4);
+		this.allocation.check(() -> {
+			try(ResourceScope scope = reused) {
+				scope.register(resource);
+				scope.register(resource);
+			}
+			return closed[0];
+		});
+		assertEquals(0, closed[0] % 2);
+	}
+
+	/**
+	 * ObjectCodec.readInto() 는 값이 바뀌지 않은 필드를 재사용한다.
+	 * @throws Exception
+	 */
+	@Test
+	@AllocationBudget(bytesPerCall = 0)
+	public void test_ObjectCodecReadInto() throws Exception {
+		Member member = new Member();
+		member.setId(1_000L);
+		member.setName("member");
+		Order order = new Order();
+		order.setId(100L);
+		order.setMember(member);
+		ObjectCodec<Order> codec = ObjectCodec.of(Order.class);
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		codec.write(buffer, order);
+		buffer.flip();
+		Order target = codec.read(buffer.duplicate());
+		this.allocation.check(() -> {
+			buffer.rewind();
+			return codec.readInto(buffer, target).getMember().getName().length();
+		});
+	}
+
+	/**
+	 * LatencyRecorder 는 기록할 때 할당하지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	@AllocationBudget(bytesPerCall = 0)
+	public void test_LatencyRecorder() throws Exception {
+		LatencyRecorder recorder = new LatencyRecorder();
+		this.allocation.check(() -> {
+			recorder.recordSince(System.nanoTime());
+			return 1;
+		});
+	}
+
+}
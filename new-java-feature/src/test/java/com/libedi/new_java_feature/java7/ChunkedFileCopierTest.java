@@ -0,0 +1,187 @@
+package com.libedi.new_java_feature.java7;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * ChunkedFileCopier 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class ChunkedFileCopierTest {
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * 여러 스레드로 chunk 단위 복사
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ParallelCopy() throws Exception {
+		byte[] data = randomBytes(CHUNK_SIZE * 20 + 123);
+		Path source = this.folder.getRoot().toPath().resolve("source.bin");
+		Path target = this.folder.getRoot().toPath().resolve("target.bin");
+		Files.write(source, data);
+		// 대상 파일이 더 크면 원본 크기로 잘린다.
+		Files.write(target, randomBytes(data.length * 2));
+
+		long copied = new ChunkedFileCopier(CHUNK_SIZE, 4).copy(source, target);
+
+		assertEquals(data.length, copied);
+		assertArrayEquals(data, Files.readAllBytes(target));
+		assertFalse(Files.exists(ChunkedFileCopier.journalPath(target)));
+	}
+
+	/**
+	 * 중단된 복사는 journal 에 기록된 chunk 이후부터 이어서 진행한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Resume() throws Exception {
+		byte[] data = randomBytes(CHUNK_SIZE * 10);
+		Path source = this.folder.getRoot().toPath().resolve("source.bin");
+		Path target = this.folder.getRoot().toPath().resolve("target.bin");
+		Files.write(source, data);
+
+		ChunkedFileCopier copier = new ChunkedFileCopier(CHUNK_SIZE, 1);
+		try {
+			copier.copy(source, target, (copiedBytes, totalBytes) -> {
+				if(copiedBytes >= CHUNK_SIZE * 3) {
+					throw new IllegalStateException("hiccup");
+				}
+			});
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(Files.exists(ChunkedFileCopier.journalPath(target)));
+		}
+
+		long[] lastProgress = new long[1];
+		long copied = copier.copy(source, target, (copiedBytes, totalBytes) -> lastProgress[0] = copiedBytes);
+
+		assertEquals(CHUNK_SIZE * 7, copied);
+		assertEquals(data.length, lastProgress[0]);
+		assertArrayEquals(data, Files.readAllBytes(target));
+		assertFalse(Files.exists(ChunkedFileCopier.journalPath(target)));
+	}
+
+	/**
+	 * 중단 후 대상 파일이 지워지면 journal 을 무시하고 처음부터 복사한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ResumeAfterTargetDeleted() throws Exception {
+		byte[] data = randomBytes(CHUNK_SIZE * 4);
+		Path source = this.folder.getRoot().toPath().resolve("source.bin");
+		Path target = this.folder.getRoot().toPath().resolve("target.bin");
+		Files.write(source, data);
+
+		ChunkedFileCopier copier = new ChunkedFileCopier(CHUNK_SIZE, 1);
+		interruptAfter(copier, source, target, CHUNK_SIZE * 2);
+		Files.delete(target);
+
+		assertEquals(data.length, copier.copy(source, target));
+		assertArrayEquals(data, Files.readAllBytes(target));
+		assertFalse(Files.exists(ChunkedFileCopier.journalPath(target)));
+	}
+
+	/**
+	 * 중단 후 마지막으로 기록된 chunk 가 바뀌면, 그 chunk 만 다시 복사한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ResumeAfterTargetModified() throws Exception {
+		byte[] data = randomBytes(CHUNK_SIZE * 4);
+		Path source = this.folder.getRoot().toPath().resolve("source.bin");
+		Path target = this.folder.getRoot().toPath().resolve("target.bin");
+		Files.write(source, data);
+
+		ChunkedFileCopier copier = new ChunkedFileCopier(CHUNK_SIZE, 1);
+		interruptAfter(copier, source, target, CHUNK_SIZE * 2);
+		byte[] modified = Files.readAllBytes(target);
+		modified[CHUNK_SIZE + 10] ^= 1;
+		Files.write(target, modified);
+
+		// 두 번째 chunk 와 남은 두 chunk. (parallelism 이 1 이므로 마지막 record 하나만 확인한다.)
+		assertEquals(CHUNK_SIZE * 3, copier.copy(source, target));
+		assertArrayEquals(data, Files.readAllBytes(target));
+
+		// 잘린 대상 파일도 처음부터 복사한다.
+		interruptAfter(copier, source, target, CHUNK_SIZE * 3);
+		Files.write(target, new byte[CHUNK_SIZE]);
+		assertEquals(data.length, copier.copy(source, target));
+		assertArrayEquals(data, Files.readAllBytes(target));
+	}
+
+	/**
+	 * 원본이 바뀌면 journal 을 무시하고 처음부터 복사한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_RestartWhenSourceChanged() throws Exception {
+		Path source = this.folder.getRoot().toPath().resolve("source.bin");
+		Path target = this.folder.getRoot().toPath().resolve("target.bin");
+		Files.write(source, randomBytes(CHUNK_SIZE * 4));
+
+		ChunkedFileCopier copier = new ChunkedFileCopier(CHUNK_SIZE, 2);
+		try {
+			copier.copy(source, target, (copiedBytes, totalBytes) -> {
+				throw new IllegalStateException("hiccup");
+			});
+			fail();
+		} catch(IllegalStateException e) {
+			// 중단
+		}
+
+		byte[] changed = randomBytes(CHUNK_SIZE * 4 + 1);
+		Files.write(source, changed);
+		assertEquals(changed.length, copier.copy(source, target));
+		assertArrayEquals(changed, Files.readAllBytes(target));
+	}
+
+	/**
+	 * 빈 파일 복사
+	 * @throws Exception
+	 */
+	@Test
+	public void test_EmptyFile() throws Exception {
+		Path source = this.folder.newFile("empty").toPath();
+		Path target = this.folder.getRoot().toPath().resolve("empty.copy");
+
+		assertEquals(0, new ChunkedFileCopier().copy(source, target));
+		assertEquals(0, Files.size(target));
+	}
+
+	private static void interruptAfter(ChunkedFileCopier copier, Path source, Path target, long bytes) throws Exception {
+		try {
+			copier.copy(source, target, (copiedBytes, totalBytes) -> {
+				if(copiedBytes >= bytes) {
+					throw new IllegalStateException("hiccup");
+				}
+			});
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(Files.exists(ChunkedFileCopier.journalPath(target)));
+		}
+	}
+
+		private static byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+
+}
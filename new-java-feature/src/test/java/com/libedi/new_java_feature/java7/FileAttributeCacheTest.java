@@ -0,0 +1,146 @@
+package com.libedi.new_java_feature.java7;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * FileAttributeCache 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class FileAttributeCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Files 의 존재/종류 검사와 같은 결과를 반환한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_SameAsFiles() throws Exception {
+		FileAttributeCache cache = new FileAttributeCache(1, TimeUnit.MINUTES);
+		Path rootPath = this.folder.getRoot().toPath();
+		Path file = this.folder.newFile("file1").toPath();
+		Path missing = rootPath.resolve("subdirectory1").resolve("file1");
+
+		for(Path path : new Path[] {rootPath, file, missing}) {
+			assertEquals(Files.exists(path), cache.exists(path));
+			assertEquals(Files.notExists(path), cache.notExists(path));
+			assertEquals(Files.isDirectory(path), cache.isDirectory(path));
+			assertEquals(Files.isRegularFile(path), cache.isRegularFile(path));
+		}
+		assertNull(cache.readAttributes(missing));
+	}
+
+	/**
+	 * 다른 경로로 변경된 내용은 TTL 이 지난 후 반영된다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Ttl() throws Exception {
+		FileAttributeCache cache = new FileAttributeCache(100, TimeUnit.MILLISECONDS);
+		Path path = this.folder.getRoot().toPath().resolve("testfile.txt");
+
+		assertTrue(cache.notExists(path));
+		Files.createFile(path);
+		assertTrue(cache.notExists(path));	// 캐시된 값
+
+		Thread.sleep(150);
+		assertTrue(cache.exists(path));
+	}
+
+	/**
+	 * 캐시를 통한 생성/복사/이동/삭제는 캐시를 바로 무효화한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_InvalidateOnOwnOperations() throws Exception {
+		FileAttributeCache cache = new FileAttributeCache(1, TimeUnit.HOURS);
+		Path root = this.folder.getRoot().toPath();
+		Path copyPath1 = root.resolve("copyDirectory1");
+		Path copyFile1 = copyPath1.resolve("copyFile.txt");
+		Path copyFile2 = root.resolve("copyFile.txt");
+		Path movePath = root.resolve("moveDirectory");
+		Path movedFile = movePath.resolve("copyFile.txt");
+
+		assertFalse(cache.exists(copyPath1));
+		cache.createDirectory(copyPath1);
+		assertTrue(cache.isDirectory(copyPath1));
+
+		assertFalse(cache.exists(copyFile1));
+		cache.createFile(copyFile1);
+		assertTrue(cache.isRegularFile(copyFile1));
+
+		assertFalse(cache.exists(copyFile2));
+		cache.copy(copyFile1, copyFile2);
+		assertTrue(cache.exists(copyFile2));
+
+		// 디렉토리 이동시 하위 경로도 무효화
+		assertFalse(cache.exists(movedFile));
+		cache.move(copyPath1, movePath);
+		assertFalse(cache.exists(copyPath1));
+		assertFalse(cache.exists(copyFile1));
+		assertTrue(cache.exists(movedFile));
+
+		cache.delete(movedFile);
+		assertTrue(cache.notExists(movedFile));
+		assertTrue(cache.deleteIfExists(copyFile2));
+		assertTrue(cache.notExists(copyFile2));
+	}
+
+	/**
+	 * 디렉토리를 무효화하면, 중간 디렉토리가 캐시되지 않은 깊은 하위 경로도 무효화된다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_InvalidateSubtree() throws Exception {
+		FileAttributeCache cache = new FileAttributeCache(1, TimeUnit.HOURS);
+		Path directory = this.folder.newFolder("a", "b", "c").toPath();
+		Path file = Files.createFile(directory.resolve("file1"));
+		Path other = this.folder.newFile("other").toPath();
+
+		assertTrue(cache.isRegularFile(file));
+		assertTrue(cache.isRegularFile(other));
+		Files.delete(file);
+		Files.delete(other);
+
+		cache.invalidate(this.folder.getRoot().toPath().resolve("a"));
+		assertTrue(cache.notExists(file));
+		// 다른 하위 트리는 그대로
+		assertTrue(cache.isRegularFile(other));
+	}
+
+	/**
+	 * 디렉토리 하위 항목 속성 미리 조회
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Prefetch() throws Exception {
+		FileAttributeCache cache = new FileAttributeCache(1, TimeUnit.HOURS);
+		Path file1 = this.folder.newFile("file1").toPath();
+		Path directory = this.folder.newFolder("directory").toPath();
+
+		assertEquals(2, cache.prefetch(this.folder.getRoot().toPath()));
+
+		// 미리 조회된 속성을 사용하므로, 외부 삭제는 반영되지 않는다.
+		Files.delete(file1);
+		Files.delete(directory);
+		assertTrue(cache.isRegularFile(file1));
+		assertTrue(cache.isDirectory(directory));
+
+		cache.invalidateAll();
+		assertFalse(cache.exists(file1));
+	}
+
+}
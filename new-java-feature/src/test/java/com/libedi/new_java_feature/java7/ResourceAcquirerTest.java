@@ -0,0 +1,194 @@
+package com.libedi.new_java_feature.java7;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * ResourceAcquirer 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class ResourceAcquirerTest {
+
+	private ExecutorService executor;
+	private ResourceAcquirer acquirer;
+
+	@Before
+	public void setUp() {
+		this.executor = Executors.newCachedThreadPool();
+		this.acquirer = new ResourceAcquirer(this.executor);
+	}
+
+	@After
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * 동시에 획득하므로 모든 획득이 함께 진행된다.
+	 * - 각 획득은 3 개가 모두 시작될 때까지 기다리므로, 하나씩 획득하면 제한시간을 넘긴다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_AcquireAllConcurrently() throws Exception {
+		CountDownLatch started = new CountDownLatch(3);
+		List<ResourceSupplier<Closeable>> suppliers = Arrays.asList(
+				together(started, () -> NewResource.getResource(false)),
+				together(started, () -> OldResource.getResource(false)),
+				together(started, () -> NewResource.getResource(false)));
+
+		List<Closeable> resources = this.acquirer.acquireAll(suppliers, 5, TimeUnit.SECONDS);
+
+		assertEquals(3, resources.size());
+		assertTrue(resources.get(0) instanceof NewResource);
+		assertTrue(resources.get(1) instanceof OldResource);
+
+		try(ResourceScope scope = new ResourceScope()) {
+			for(Closeable resource : resources) {
+				((Resource) scope.register(resource)).use();
+			}
+		}
+	}
+
+	/**
+	 * 하나라도 실패하면 나머지를 취소하고, 획득한 자원은 해제한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_FailFast() throws Exception {
+		CountDownLatch closed = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch interrupted = new CountDownLatch(1);
+
+		List<ResourceSupplier<AutoCloseable>> suppliers = Arrays.asList(
+				() -> {
+					started.countDown();
+					return closed::countDown;
+				},
+				() -> {
+					started.await();
+					throw new IOException("backend down");
+				},
+				() -> {
+					started.countDown();
+					try {
+						Thread.sleep(10_000);
+					} catch(InterruptedException e) {
+						interrupted.countDown();
+						throw e;
+					}
+					return () -> fail();
+				});
+
+		long start = System.nanoTime();
+		try {
+			this.acquirer.acquireAll(suppliers, 5, TimeUnit.SECONDS);
+			fail();
+		} catch(ResourceAcquisitionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			assertEquals("backend down", e.getCause().getMessage());
+		}
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+		assertTrue(closed.await(1, TimeUnit.SECONDS));
+		assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * 제한시간을 넘기면 TimeoutException 을 원인으로 실패하고,
+	 * 제한시간 이후에 획득된 자원도 해제된다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Deadline() throws Exception {
+		CountDownLatch closed = new CountDownLatch(1);
+		List<ResourceSupplier<AutoCloseable>> suppliers = Arrays.asList(
+				() -> closed::countDown,
+				slow(() -> () -> {}, 1_000));
+
+		try {
+			this.acquirer.acquireAll(suppliers, 100, TimeUnit.MILLISECONDS);
+			fail();
+		} catch(ResourceAcquisitionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+		assertTrue(closed.await(1, TimeUnit.SECONDS));
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	/**
+	 * 작업 스레드 생성에 실패(Error)해도 이미 획득한 자원은 해제하고, Error 를 그대로 던진다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ErrorWhileSubmitting() throws Exception {
+		CountDownLatch acquired = new CountDownLatch(1);
+		CountDownLatch closed = new CountDownLatch(1);
+		AtomicInteger threads = new AtomicInteger();
+		// 두 번째 스레드는 첫 번째 자원을 획득한 뒤에 생성에 실패한다.
+		ExecutorService executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+				runnable -> {
+					if(threads.getAndIncrement() > 0) {
+						try {
+							acquired.await(1, TimeUnit.SECONDS);
+						} catch(InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						throw new OutOfMemoryError("unable to create new native thread");
+					}
+					return new Thread(runnable);
+				});
+		List<ResourceSupplier<AutoCloseable>> suppliers = Arrays.asList(
+				() -> {
+					acquired.countDown();
+					return closed::countDown;
+				},
+				() -> () -> fail());
+
+		try {
+			new ResourceAcquirer(executor).acquireAll(suppliers, 5, TimeUnit.SECONDS);
+			fail();
+		} catch(OutOfMemoryError e) {
+			assertEquals("unable to create new native thread", e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+		assertTrue(closed.await(1, TimeUnit.SECONDS));
+	}
+
+	private static <T extends AutoCloseable> ResourceSupplier<T> together(CountDownLatch started, ResourceSupplier<T> supplier) {
+		return () -> {
+			started.countDown();
+			if(!started.await(5, TimeUnit.SECONDS)) {
+				throw new TimeoutException("acquired one by one");
+			}
+			return supplier.get();
+		};
+	}
+
+	private static <T extends AutoCloseable> ResourceSupplier<T> slow(ResourceSupplier<T> supplier, long millis) {
+		return () -> {
+			Thread.sleep(millis);
+			return supplier.get();
+		};
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.libedi.new_java_feature.java7;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.libedi.new_java_feature.java8.LatencyHistogram;
+
+/**
+ * ResourceLatencyRecorder 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class ResourceLatencyRecorderTest {
+
+	/**
+	 * try-with-resources 에서 use() 와 close() 가 기록된다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_UseAndClose() throws Exception {
+		ResourceLatencyRecorder recorder = new ResourceLatencyRecorder();
+		for(int i = 0; i < 3; i++) {
+			try(ResourceLatencyRecorder.TimedResource resource = recorder.wrap(NewResource.getResource(false))) {
+				resource.use();
+			}
+		}
+		// AutoCloseable 이 아닌 Resource 는 close() 를 기록하지 않는다.
+		try(ResourceLatencyRecorder.TimedResource resource = recorder.wrap(new Resource("Plain") {})) {
+			resource.use();
+		}
+
+		LatencyHistogram use = recorder.getUseRecorder().intervalHistogram();
+		LatencyHistogram close = recorder.getCloseRecorder().intervalHistogram();
+		assertEquals(4, use.getTotalCount());
+		assertEquals(3, close.getTotalCount());
+		assertTrue(use.getMaxValue() > 0);
+		assertEquals(0, recorder.getUseRecorder().intervalHistogram().getTotalCount());
+	}
+
+	/**
+	 * 예외가 발생한 close() 도 기록된다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_FailedClose() throws Exception {
+		ResourceLatencyRecorder recorder = new ResourceLatencyRecorder();
+		IOException failure = new IOException("close");
+		try {
+			recorder.close(() -> {
+				Thread.sleep(5);
+				throw failure;
+			});
+			fail();
+		} catch(IOException e) {
+			assertSame(failure, e);
+		}
+
+		LatencyHistogram close = recorder.getCloseRecorder().intervalHistogram();
+		assertEquals(1, close.getTotalCount());
+		assertTrue(close.getMaxValue() >= 5_000_000L);
+
+		// 다른 노드로 보내 합칠 수 있다.
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		close.encode(buffer);
+		buffer.flip();
+		assertEquals(close, LatencyHistogram.decode(buffer));
+	}
+
+	@Test
+	public void test_FailedUse() throws Exception {
+		ResourceLatencyRecorder recorder = new ResourceLatencyRecorder();
+		Resource failing = new Resource("Failing") {
+			@Override
+			public void use() {
+				throw new IllegalStateException();
+			}
+		};
+		try {
+			recorder.use(failing);
+			fail();
+		} catch(IllegalStateException e) {
+			assertEquals(1, recorder.getUseRecorder().intervalHistogram().getTotalCount());
+		}
+	}
+
+}
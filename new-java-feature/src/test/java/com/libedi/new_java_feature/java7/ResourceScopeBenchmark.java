@@ -0,0 +1,169 @@
+package com.libedi.new_java_feature.java7;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * 중첩 try-with-resources 와 ResourceScope 비교
+ * - 간단한 반복 측정. 정밀한 수치는 JMH 등의 도구를 사용할 것.
+ * - 이름이 *Test 가 아니므로 mvn test 에 포함되지 않는다. 실행 : mvn test -Dtest=ResourceScopeBenchmark
+ * @author Sangjun, Park
+ *
+ */
+public class ResourceScopeBenchmark {
+
+	private static final int ITERATIONS = 200_000;
+	private static final int ROUNDS = 4;
+
+	/**
+	 * 필드에 보관되는 4개의 자원
+	 * - 자원마다 상태를 바꾸고 그 결과를 합산해 검증하므로, JIT 가 반복문을 제거할 수 없다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CompareWithNestedTry_4() throws Exception {
+		Counter[] resources = counters(4);
+		ResourceScope reused = new ResourceScope();
+
+		long[] times = new long[3];
+		long sink = 0;
+		for(int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			sink += nestedTry4(resources);
+			times[0] = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sink += newScope(resources);
+			times[1] = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sink += reusedScope(reused, resources);
+			times[2] = System.nanoTime() - start;
+		}
+		print(4, times);
+		verify(resources, sink);
+	}
+
+	/**
+	 * 추가 배열이 필요한 10개의 자원
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CompareWithNestedTry_10() throws Exception {
+		Counter[] resources = counters(10);
+		ResourceScope reused = new ResourceScope(resources.length);
+
+		long[] times = new long[3];
+		long sink = 0;
+		for(int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			sink += nestedTry10(resources);
+			times[0] = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sink += newScope(resources);
+			times[1] = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sink += reusedScope(reused, resources);
+			times[2] = System.nanoTime() - start;
+		}
+		print(10, times);
+		verify(resources, sink);
+	}
+
+	/**
+	 * 사용과 해제 횟수를 세는 자원
+	 */
+	private static final class Counter implements AutoCloseable {
+		private long used;
+		private long closed;
+
+		long use() {
+			return ++this.used;
+		}
+
+		@Override
+		public void close() {
+			this.closed++;
+		}
+	}
+
+	private static Counter[] counters(int count) {
+		Counter[] resources = new Counter[count];
+		for(int i = 0; i < resources.length; i++) {
+			resources[i] = new Counter();
+		}
+		return resources;
+	}
+
+	private static void print(int count, long[] times) {
+		System.out.println(count + " resources, nested try-with-resources: " + times[0] / ITERATIONS + " ns/op");
+		System.out.println(count + " resources, ResourceScope (new): " + times[1] / ITERATIONS + " ns/op");
+		System.out.println(count + " resources, ResourceScope (reused): " + times[2] / ITERATIONS + " ns/op");
+	}
+
+	/**
+	 * 자원마다 사용과 해제가 모두 일어났다.
+	 */
+	private static void verify(Counter[] resources, long sink) {
+		long calls = (long) ROUNDS * 3 * ITERATIONS;
+		for(Counter resource : resources) {
+			assertEquals(calls, resource.used);
+			assertEquals(calls, resource.closed);
+		}
+		assertEquals(calls * resources.length * (calls + 1) / 2, sink);
+	}
+
+	private static long nestedTry4(Counter[] resources) {
+		long sum = 0;
+		for(int i = 0; i < ITERATIONS; i++) {
+			try(Counter r1 = resources[0]; Counter r2 = resources[1]; Counter r3 = resources[2]; Counter r4 = resources[3]) {
+				sum += r1.use() + r2.use() + r3.use() + r4.use();
+			}
+		}
+		return sum;
+	}
+
+	private static long nestedTry10(Counter[] resources) {
+		long sum = 0;
+		for(int i = 0; i < ITERATIONS; i++) {
+			try(Counter r1 = resources[0]; Counter r2 = resources[1]; Counter r3 = resources[2];
+					Counter r4 = resources[3]; Counter r5 = resources[4]; Counter r6 = resources[5];
+					Counter r7 = resources[6]; Counter r8 = resources[7]; Counter r9 = resources[8];
+					Counter r10 = resources[9]) {
+				sum += r1.use() + r2.use() + r3.use() + r4.use() + r5.use()
+						+ r6.use() + r7.use() + r8.use() + r9.use() + r10.use();
+			}
+		}
+		return sum;
+	}
+
+	private static long newScope(Counter[] resources) throws IOException {
+		long sum = 0;
+		for(int i = 0; i < ITERATIONS; i++) {
+			try(ResourceScope scope = new ResourceScope()) {
+				for(Counter resource : resources) {
+					sum += scope.register(resource).use();
+				}
+			}
+		}
+		return sum;
+	}
+
+	private static long reusedScope(ResourceScope scope, Counter[] resources) throws IOException {
+		long sum = 0;
+		for(int i = 0; i < ITERATIONS; i++) {
+			try(ResourceScope reused = scope) {
+				for(Counter resource : resources) {
+					sum += reused.register(resource).use();
+				}
+			}
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.libedi.new_java_feature.java7;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * ResourceScope 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class ResourceScopeTest {
+
+	/**
+	 * 등록한 자원은 역순으로 해제된다. (try-with-resources 와 동일)
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CloseInReverseOrder() throws Exception {
+		List<Integer> closed = new ArrayList<>();
+		// 필드 4개를 넘겨 추가 배열의 생성과 확장도 확인
+		try(ResourceScope scope = new ResourceScope(2)) {
+			for(int i = 0; i < 10; i++) {
+				int index = i;
+				scope.register(() -> closed.add(index));
+			}
+			scope.register(null);	// null 은 무시
+			assertEquals(10, scope.size());
+		}
+		assertArrayEquals(new Integer[] {9, 8, 7, 6, 5, 4, 3, 2, 1, 0}, closed.toArray(new Integer[0]));
+	}
+
+	/**
+	 * 해제 중 예외가 발생해도 나머지 자원은 모두 해제되고,
+	 * 실패한 경우에만 suppressed 예외가 추가된다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_SuppressedOnlyWhenCloseFails() throws Exception {
+		List<String> closed = new ArrayList<>();
+		IOException first = new IOException("first");
+		TestException second = new TestException("second");
+
+		ResourceScope scope = new ResourceScope();
+		scope.register(() -> { closed.add("a"); throw second; });
+		scope.register(() -> closed.add("b"));
+		scope.register(() -> { closed.add("c"); throw first; });
+		try {
+			scope.close();
+			fail();
+		} catch(IOException e) {
+			assertSame(first, e);
+			assertEquals(1, e.getSuppressed().length);
+			assertSame(second, e.getSuppressed()[0]);
+		}
+		assertArrayEquals(new String[] {"c", "b", "a"}, closed.toArray(new String[0]));
+		assertEquals(0, scope.size());
+
+		// 정상 해제시에는 suppressed 예외가 없다.
+		try(ResourceScope okScope = new ResourceScope()) {
+			okScope.register(NewResource.getResource(false)).use();
+			okScope.register(OldResource.getResource(false)).use();
+		}
+	}
+
+	/**
+	 * close() 후에는 비어 있는 상태로 돌아가 다시 사용할 수 있다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ReuseAfterClose() throws Exception {
+		List<Integer> closed = new ArrayList<>();
+		ResourceScope scope = new ResourceScope(1);
+		for(int round = 0; round < 3; round++) {
+			try(ResourceScope reused = scope) {
+				int value = round;
+				reused.register(() -> closed.add(value));
+				reused.register(() -> closed.add(value + 10));
+			}
+			assertEquals(0, scope.size());
+		}
+		assertArrayEquals(new Integer[] {10, 0, 11, 1, 12, 2}, closed.toArray(new Integer[0]));
+	}
+
+	/**
+	 * IOException 이 아닌 checked 예외는 IOException 으로 감싼다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CheckedExceptionIsWrapped() throws Exception {
+		TestException checked = new TestException("checked");
+		ResourceScope scope = new ResourceScope();
+		scope.register(() -> { throw checked; });
+		try {
+			scope.close();
+			fail();
+		} catch(IOException e) {
+			assertSame(checked, e.getCause());
+		}
+
+		InterruptedException interrupted = new InterruptedException("interrupted");
+		scope.register(() -> { throw interrupted; });
+		try {
+			scope.close();
+			fail();
+		} catch(InterruptedIOException e) {
+			assertSame(interrupted, e.getCause());
+			// interrupt 상태가 복원된다.
+			assertTrue(Thread.interrupted());
+		}
+	}
+
+}
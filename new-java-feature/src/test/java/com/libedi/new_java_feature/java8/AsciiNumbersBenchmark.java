@@ -0,0 +1,84 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.junit.Test;
+
+/**
+ * AsciiNumbers 성능 비교
+ * - 이름이 *Test 가 아니므로 mvn test 에 포함되지 않는다. 실행 : mvn test -Dtest=AsciiNumbersBenchmark
+ * @author Sangjun, Park
+ *
+ */
+public class AsciiNumbersBenchmark {
+
+	/**
+	 * Integer::parseInt 와 AsciiNumbers 비교
+	 * - 간단한 반복 측정. 정밀한 수치는 JMH 등의 도구를 사용할 것.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CompareWithIntegerParseInt() throws Exception {
+		final int count = 1_000_000;
+		Random random = new Random(1);
+		StringBuilder builder = new StringBuilder();
+		int[] offsets = new int[count + 1];
+		for(int i = 0; i < count; i++) {
+			offsets[i] = builder.length();
+			builder.append(random.nextInt(Integer.MAX_VALUE));
+		}
+		offsets[count] = builder.length();
+		String text = builder.toString();
+		byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+
+		// 기존 방식 : 필드마다 String 생성 + boxing
+		Function<String, Integer> methodReferenceFunc = Integer::parseInt;
+		// 새로운 방식 : byte[] 범위에서 바로 파싱
+		AsciiNumbers.ByteRangeToIntFunction byteRangeFunc = AsciiNumbers::parseInt;
+		ToIntFunction<CharSequence> charSequenceFunc = AsciiNumbers.PARSE_INT;
+
+		long expected = 0;
+		long sum1 = 0;
+		long sum2 = 0;
+		long sum3 = 0;
+		long time1 = 0;
+		long time2 = 0;
+		long time3 = 0;
+		for(int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			sum1 = 0;
+			for(int i = 0; i < count; i++) {
+				sum1 += methodReferenceFunc.apply(text.substring(offsets[i], offsets[i + 1]));
+			}
+			time1 = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sum2 = 0;
+			for(int i = 0; i < count; i++) {
+				sum2 += byteRangeFunc.applyAsInt(bytes, offsets[i], offsets[i + 1]);
+			}
+			time2 = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sum3 = 0;
+			for(int i = 0; i < count; i++) {
+				sum3 += AsciiNumbers.parseInt(text, offsets[i], offsets[i + 1]);
+			}
+			time3 = System.nanoTime() - start;
+			expected = sum1;
+		}
+		assertEquals(expected, sum2);
+		assertEquals(expected, sum3);
+		assertEquals(12345, charSequenceFunc.applyAsInt("12345"));
+
+		System.out.println("Integer::parseInt (substring + boxing): " + time1 / count + " ns/op");
+		System.out.println("AsciiNumbers.parseInt(byte[]): " + time2 / count + " ns/op");
+		System.out.println("AsciiNumbers.parseInt(CharSequence): " + time3 / count + " ns/op");
+	}
+
+}
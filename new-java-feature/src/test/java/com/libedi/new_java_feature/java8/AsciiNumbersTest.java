@@ -0,0 +1,92 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * AsciiNumbers 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class AsciiNumbersTest {
+
+	private static final String[] INPUTS = {
+			"0", "-0", "+0", "7", "-7", "+7", "00000000000000000000042", "-000000000000000000000",
+			"12345678", "123456789", "1234567890", "-1234567890",
+			"2147483647", "-2147483648", "2147483648", "-2147483649",
+			"9223372036854775807", "-9223372036854775808", "9223372036854775808", "-9223372036854775809",
+			"99999999999999999999", "922337203685477580", "100000000000000000",
+			"", "-", "+", "--1", "1-", " 1", "1 ", "12345a78", "1234567:", "123/5678", "0x10", "1_000"
+	};
+
+	/**
+	 * Integer.parseInt(), Long.parseLong() 과 같은 결과와 예외
+	 * @throws Exception
+	 */
+	@Test
+	public void test_SameAsJdk() throws Exception {
+		for(String input : INPUTS) {
+			byte[] bytes = ("##" + input + "##").getBytes(StandardCharsets.US_ASCII);
+			int from = 2;
+			int to = bytes.length - 2;
+
+			assertSame(input, () -> Integer.parseInt(input), () -> AsciiNumbers.parseInt(input));
+			assertSame(input, () -> Integer.parseInt(input), () -> AsciiNumbers.parseInt(bytes, from, to));
+			assertSame(input, () -> Integer.parseInt(input), () -> AsciiNumbers.parseInt("##" + input + "##", from, to));
+			assertSame(input, () -> Long.parseLong(input), () -> AsciiNumbers.parseLong(input));
+			assertSame(input, () -> Long.parseLong(input), () -> AsciiNumbers.parseLong(bytes, from, to));
+			assertSame(input, () -> Long.parseLong(input), () -> AsciiNumbers.parseLong(new StringBuilder(input)));
+		}
+	}
+
+	/**
+	 * 임의의 숫자
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Random() throws Exception {
+		Random random = new Random(0);
+		for(int i = 0; i < 100_000; i++) {
+			int intValue = random.nextInt() >> random.nextInt(32);
+			byte[] intBytes = Integer.toString(intValue).getBytes(StandardCharsets.US_ASCII);
+			assertEquals(intValue, AsciiNumbers.parseInt(intBytes));
+
+			long longValue = random.nextLong() >> random.nextInt(64);
+			byte[] longBytes = Long.toString(longValue).getBytes(StandardCharsets.US_ASCII);
+			assertEquals(longValue, AsciiNumbers.parseLong(longBytes));
+			assertEquals(longValue, AsciiNumbers.parseLong(Long.toString(longValue)));
+		}
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void test_Null() throws Exception {
+		AsciiNumbers.parseInt((CharSequence) null);
+	}
+
+	@FunctionalInterface
+	private interface NumberParser {
+		long parse();
+	}
+
+	private static void assertSame(String input, NumberParser expected, NumberParser actual) {
+		Long expectedValue;
+		try {
+			expectedValue = expected.parse();
+		} catch(NumberFormatException e) {
+			try {
+				actual.parse();
+				fail("Expected NumberFormatException: \"" + input + "\"");
+			} catch(NumberFormatException actualException) {
+				assertEquals(e.getMessage(), actualException.getMessage());
+			}
+			return;
+		}
+		assertEquals("input: \"" + input + "\"", expectedValue.longValue(), actual.parse());
+	}
+
+}
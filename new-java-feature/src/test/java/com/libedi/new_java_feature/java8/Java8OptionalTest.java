@@ -1,12 +1,9 @@
 package com.libedi.new_java_feature.java8;
 
-import java.util.Date;
 import java.util.Optional;
 
 import org.junit.Test;
 
-import lombok.Data;
-
 public class Java8OptionalTest {
 
 	/*
@@ -29,27 +26,7 @@ public class Java8OptionalTest {
 		System.out.println(city.length());
 	}
 	
-	// 테스트 모델
-	@Data
-	public static class Order {
-		private Long id;
-		private Date date;
-		private Member member;
-	}
-	
-	@Data
-	public static class Member {
-		private Long id;
-		private String name;
-		private Address address;
-	}
-	
-	@Data
-	public static class Address {
-		private String street;
-		private String city;
-		private String zipcode;
-	}
+	// 테스트 모델 : Order, Member, Address (com.libedi.new_java_feature.java8 패키지)
 	
 	// 테스트 메서드 : NPE 발생 코드
 	public String getCityOfMemberFromOrder(Order order) {
@@ -0,0 +1,173 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * LatencyHistogram, LatencyRecorder 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class LatencyHistogramTest {
+
+	/**
+	 * 구간 경계 : 모든 값은 자기 구간의 최소값과 최대값 사이에 있다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Buckets() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram(3);
+		long[] values = { 0, 1, 15, 16, 17, 31, 32, 1_000, 1L << 40, Long.MAX_VALUE };
+		for(long value : values) {
+			int index = histogram.index(value);
+			assertTrue(histogram.lowestEquivalentValue(index) <= value);
+			assertTrue(histogram.highestEquivalentValue(index) >= value);
+		}
+		for(int index = 1; index < (64 - 3) << 3; index++) {
+			assertEquals(histogram.highestEquivalentValue(index - 1) + 1, histogram.lowestEquivalentValue(index));
+		}
+	}
+
+	/**
+	 * percentile 은 정확한 값과 상대 오차 1/2^bits 이내
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Percentiles() throws Exception {
+		Random random = new Random(0);
+		LatencyHistogram histogram = new LatencyHistogram();
+		long[] values = new long[100_000];
+		for(int i = 0; i < values.length; i++) {
+			// 대부분 빠르고 가끔 느린 분포
+			values[i] = (long) Math.exp(8 + random.nextGaussian() * 2);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+		for(double percentile : new double[] { 0, 50, 90, 99, 99.9, 99.99, 100 }) {
+			long exact = values[Math.max(0, (int) Math.ceil(percentile / 100 * values.length) - 1)];
+			long actual = histogram.getValueAtPercentile(percentile);
+			assertTrue(percentile + "%: " + exact + ", " + actual, actual >= exact && actual <= exact + exact / 32);
+		}
+		assertEquals(values.length, histogram.getTotalCount());
+		assertEquals(histogram.getValueAtPercentile(100), histogram.getMaxValue());
+		assertTrue(histogram.getMinValue() <= values[0]);
+	}
+
+	/**
+	 * 합치기와 encode / decode 는 손실이 없다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_MergeAndEncode() throws Exception {
+		Random random = new Random(1);
+		LatencyHistogram all = new LatencyHistogram();
+		LatencyHistogram merged = new LatencyHistogram();
+		for(int node = 0; node < 4; node++) {
+			LatencyHistogram histogram = new LatencyHistogram();
+			for(int i = 0; i < 10_000; i++) {
+				long value = (long) Math.exp(6 + random.nextGaussian() * 3);
+				histogram.record(value);
+				all.record(value);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate(8192);
+			histogram.encode(buffer);
+			buffer.flip();
+			assertTrue("encoded size: " + buffer.remaining(), buffer.remaining() < 2048);
+			merged.add(LatencyHistogram.decode(buffer));
+		}
+		assertEquals(all, merged);
+		assertEquals(all.getTotalCount(), merged.getTotalCount());
+		assertEquals(all.getValueAtPercentile(99.9), merged.getValueAtPercentile(99.9));
+	}
+
+	/**
+	 * 여러 thread 가 기록하는 동안 interval 을 읽어도 기록이 빠지거나 중복되지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_RecorderIsLossless() throws Exception {
+		final int threads = 4;
+		final int recordsPerThread = 200_000;
+		LatencyRecorder recorder = new LatencyRecorder();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean done = new AtomicBoolean();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for(int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for(int i = 0; i < recordsPerThread; i++) {
+						recorder.record(i & 1023);
+					}
+					return null;
+				}));
+			}
+			LatencyHistogram total = new LatencyHistogram();
+			LatencyHistogram interval = new LatencyHistogram();
+			start.countDown();
+			int intervals = 0;
+			while(!done.get()) {
+				done.set(futures.stream().allMatch(Future::isDone));
+				total.add(recorder.intervalHistogram(interval));
+				intervals++;
+			}
+			for(Future<?> future : futures) {
+				future.get();
+			}
+			total.add(recorder.intervalHistogram(interval));
+
+			assertEquals((long) threads * recordsPerThread, total.getTotalCount());
+			assertEquals(1023, total.getMaxValue());
+			assertTrue(intervals > 0);
+		} finally {
+			executor.shutdownNow();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * thread 가 계속 바뀌어도 종료된 thread 의 slot 은 기록을 옮긴 뒤 버린다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_RecorderReleasesTerminatedThreads() throws Exception {
+		LatencyRecorder recorder = new LatencyRecorder();
+		LatencyHistogram total = new LatencyHistogram();
+		for(int round = 0; round < 10; round++) {
+			List<Thread> threads = new ArrayList<>();
+			for(int t = 0; t < 10; t++) {
+				threads.add(new Thread(() -> recorder.record(100)));
+			}
+			for(Thread thread : threads) {
+				thread.start();
+			}
+			for(Thread thread : threads) {
+				thread.join();
+			}
+			total.add(recorder.intervalHistogram());
+			assertEquals(0, recorder.getSlotCount());
+		}
+		assertEquals(100, total.getTotalCount());
+
+		// 살아 있는 thread 의 slot 은 유지한다.
+		recorder.record(1);
+		assertEquals(1, recorder.intervalHistogram().getTotalCount());
+		assertEquals(1, recorder.getSlotCount());
+	}
+
+}
@@ -0,0 +1,196 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.libedi.new_java_feature.java7.TestException;
+
+/**
+ * ObjectCodec 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class ObjectCodecTest {
+
+	private final ObjectCodec<Order> codec = ObjectCodec.of(Order.class);
+	private final ObjectWriter writer = new ObjectWriter(16);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * null 을 포함한 객체 그래프 round-trip
+	 * @throws Exception
+	 */
+	@Test
+	public void test_RoundTrip() throws Exception {
+		List<Order> orders = OrderLoaderTest.orders(1000);
+		ByteBuffer buffer = this.writer.writeAll(this.codec, orders);
+		for(Order order : orders) {
+			assertEquals(order, this.codec.read(buffer));
+		}
+		assertFalse(buffer.hasRemaining());
+		assertSame(this.codec, ObjectCodec.of(Order.class));
+	}
+
+	/**
+	 * OrderLoader 가 만든 주문 (member / address 를 getter 에서 지연 파싱하는 하위 클래스) 도 getter 로 기록된다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_RoundTripLoadedOrders() throws Exception {
+		List<Order> expected = OrderLoaderTest.orders(1000);
+		Path path = OrderLoaderTest.write(expected, this.folder.newFile().toPath());
+		List<Order> loaded;
+		try(Stream<Order> orders = OrderLoader.load(path)) {
+			loaded = orders.collect(Collectors.toList());
+		}
+		ByteBuffer buffer = ObjectWriter.current().writeAll(this.codec, loaded);
+		for(Order order : expected) {
+			Order read = this.codec.read(buffer);
+			assertSame(Order.class, read.getClass());
+			assertEquals(order, read);
+		}
+		assertFalse(buffer.hasRemaining());
+
+		// 하위 클래스 객체에는 읽을 수 없다.
+		try {
+			this.codec.readInto(this.writer.write(this.codec, expected.get(1)), loaded.get(1));
+			fail();
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * thread 마다 같은 ObjectWriter 를 재사용한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CurrentWriter() throws Exception {
+		ObjectWriter writer = ObjectWriter.current();
+		assertSame(writer, ObjectWriter.current());
+		ObjectWriter[] other = new ObjectWriter[1];
+		Thread thread = new Thread(() -> other[0] = ObjectWriter.current());
+		thread.start();
+		thread.join();
+		assertNotSame(writer, other[0]);
+	}
+
+	/**
+	 * 기존 객체에 읽으면 하위 객체와 같은 값을 재사용한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ReadInto() throws Exception {
+		Order source = OrderLoaderTest.orders(2).get(1);
+		Order target = this.codec.read(this.writer.write(this.codec, source));
+		Member member = target.getMember();
+		Address address = member.getAddress();
+		Date date = target.getDate();
+		String name = member.getName();
+
+		source.getMember().getAddress().setCity("Incheon");
+		source.setDate(new Date(0));
+		assertSame(target, this.codec.readInto(this.writer.write(this.codec, source), target));
+		assertEquals(source, target);
+		assertSame(member, target.getMember());
+		assertSame(address, member.getAddress());
+		assertSame(date, target.getDate());
+		assertSame(name, member.getName());
+
+		source.getMember().setAddress(null);
+		this.codec.readInto(this.writer.write(this.codec, source), target);
+		assertNull(target.getMember().getAddress());
+		assertEquals(source, target);
+	}
+
+	/**
+	 * Throwable 은 message 와 stack trace 를 기록한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Exception() throws Exception {
+		ObjectCodec<TestException> exceptionCodec = ObjectCodec.of(TestException.class);
+
+		TestException exception = new TestException("Exception!");
+		ByteBuffer buffer = this.writer.write(exceptionCodec, exception);
+		int size = buffer.remaining();
+		TestException copy = exceptionCodec.read(buffer);
+		assertEquals(exception.getMessage(), copy.getMessage());
+		assertArrayEquals(exception.getStackTrace(), copy.getStackTrace());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(exception);
+		}
+		assertTrue(size < bytes.size());
+
+		assertNull(exceptionCodec.read(this.writer.write(exceptionCodec, new TestException((String) null))).getMessage());
+	}
+
+	/**
+	 * 기존 Throwable 에 읽으면 message 와 stack trace 를 덮어쓴다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ExceptionReadInto() throws Exception {
+		ObjectCodec<TestException> exceptionCodec = ObjectCodec.of(TestException.class);
+		TestException exception = new TestException("Exception!");
+		TestException target = new TestException("target");
+		target.setStackTrace(new StackTraceElement[0]);
+
+		assertSame(target, exceptionCodec.readInto(this.writer.write(exceptionCodec, exception), target));
+		assertEquals("Exception!", target.getMessage());
+		assertArrayEquals(exception.getStackTrace(), target.getStackTrace());
+
+		String message = target.getMessage();
+		exceptionCodec.readInto(this.writer.write(exceptionCodec, exception), target);
+		assertSame(message, target.getMessage());
+
+		exceptionCodec.readInto(this.writer.write(exceptionCodec, new TestException((String) null)), target);
+		assertNull(target.getMessage());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_UnsupportedField() throws Exception {
+		ObjectCodec.of(Unsupported.class);
+	}
+
+	/**
+	 * 텍스트(toString) 와 크기 비교
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Size() throws Exception {
+		Order order = OrderLoaderTest.orders(2).get(1);
+		int size = this.writer.write(this.codec, order).remaining();
+		int textSize = order.toString().getBytes(StandardCharsets.UTF_8).length;
+		assertTrue(size * 3 < textSize);
+	}
+
+	static class Unsupported {
+		private List<String> values;
+	}
+
+}
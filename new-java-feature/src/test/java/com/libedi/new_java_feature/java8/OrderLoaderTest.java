@@ -0,0 +1,238 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * OrderLoader 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class OrderLoaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * 파일에서 읽은 주문은 직접 만든 주문과 같다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Load() throws Exception {
+		List<Order> expected = orders(1_000);
+		Path path = write(expected);
+
+		try(Stream<Order> orders = OrderLoader.load(path)) {
+			assertEquals(expected, orders.collect(Collectors.toList()));
+		}
+		try(Stream<Order> orders = OrderLoader.load(path, OrderSpliterator.DEFAULT_DELIMITER, true)) {
+			assertEquals(expected, orders.collect(Collectors.toList()));
+		}
+	}
+
+	/**
+	 * 레코드 경계로 분할하여 병렬 파싱해도 순서와 결과가 같다.
+	 * - 작은 버퍼와 분할 크기로 버퍼 확장과 레코드 중간 분할을 확인
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ParallelSplit() throws Exception {
+		List<Order> expected = orders(2_000);
+		Path path = write(expected);
+
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			for(long minSplitSize : new long[] {1, 7, 100, 10_000}) {
+				OrderSpliterator spliterator = new OrderSpliterator(channel, 0, channel.size(),
+						OrderSpliterator.DEFAULT_DELIMITER, 16, minSplitSize);
+				List<Order> actual = StreamSupport.stream(spliterator, true).collect(Collectors.toList());
+				assertEquals(expected, actual);
+			}
+		}
+	}
+
+	/**
+	 * 파싱 형식
+	 * - 빈 필드는 null, 빈 줄과 CRLF 처리
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Format() throws Exception {
+		Path path = this.folder.getRoot().toPath().resolve("orders.txt");
+		Files.write(path, ("1|1537504950000|10|홍길동|세종대로 110|서울|04524\r\n"
+				+ "\n"
+				+ "2||||||\n"
+				+ "3|-1|11||||12345").getBytes(StandardCharsets.UTF_8));
+
+		try(Stream<Order> orders = OrderLoader.load(path)) {
+			List<Order> list = orders.collect(Collectors.toList());
+			assertEquals(3, list.size());
+
+			Order order1 = list.get(0);
+			assertEquals(new Date(1537504950000L), order1.getDate());
+			assertEquals("홍길동", order1.getMember().getName());
+			assertEquals("04524", order1.getMember().getAddress().getZipcode());
+
+			Order order2 = list.get(1);
+			assertNull(order2.getDate());
+			assertNull(order2.getMember());
+
+			Order order3 = list.get(2);
+			assertEquals(Long.valueOf(11), order3.getMember().getId());
+			assertNull(order3.getMember().getName());
+			assertNull(order3.getMember().getAddress().getCity());
+			assertEquals("12345", order3.getMember().getAddress().getZipcode());
+		}
+	}
+
+	/**
+	 * findFirst() 는 찾은 이후의 레코드를 읽지 않고,
+	 * member 는 getter 를 호출할 때 파싱한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_LazyAndShortCircuit() throws Exception {
+		Path path = this.folder.getRoot().toPath().resolve("orders.txt");
+		Files.write(path, ("1|0|not-a-number|name|||\n"
+				+ "2|0|20|name|||\n"
+				+ "broken record\n").getBytes(StandardCharsets.UTF_8));
+
+		try(Stream<Order> orders = OrderLoader.load(path)) {
+			Optional<Order> order = orders.filter(o -> o.getId() == 2L).findFirst();
+			assertEquals(Long.valueOf(20), order.get().getMember().getId());
+		}
+
+		try(Stream<Order> orders = OrderLoader.load(path)) {
+			Order order = orders.findFirst().get();
+			order.getMember();
+			fail();
+		} catch(NumberFormatException e) {
+			// member 는 조회할 때 파싱
+		}
+
+		try(Stream<Order> orders = OrderLoader.load(path)) {
+			orders.count();
+			fail();
+		} catch(IllegalArgumentException e) {
+			// 잘못된 레코드
+		}
+	}
+
+	/**
+	 * 여러 thread 가 같은 주문의 member / address 를 처음 조회해도 null 을 보지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ConcurrentLazyParsing() throws Exception {
+		List<Order> expected = orders(5_000);
+		Path path = write(expected);
+		for(int round = 0; round < 5; round++) {
+			List<Order> loaded;
+			try(Stream<Order> orders = OrderLoader.load(path)) {
+				loaded = orders.collect(Collectors.toList());
+			}
+			int threads = 4;
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for(int t = 0; t < threads; t++) {
+					futures.add(executor.submit(() -> {
+						barrier.await();
+						for(int i = 0; i < loaded.size(); i++) {
+							Member member = loaded.get(i).getMember();
+							Member expectedMember = expected.get(i).getMember();
+							assertEquals(expectedMember, member);
+							if(member != null) {
+								assertEquals(expectedMember.getAddress(), member.getAddress());
+							}
+						}
+						return null;
+					}));
+				}
+				for(Future<?> future : futures) {
+					future.get();
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private Path write(List<Order> orders) throws Exception {
+		return write(orders, this.folder.newFile().toPath());
+	}
+
+	/**
+	 * OrderLoader 형식으로 기록한다.
+	 */
+	static Path write(List<Order> orders, Path path) throws IOException {
+		List<String> lines = new ArrayList<>(orders.size());
+		for(Order order : orders) {
+			Member member = order.getMember();
+			Address address = member == null ? null : member.getAddress();
+			lines.add(String.join("|", Arrays.asList(
+					text(order.getId()),
+					order.getDate() == null ? "" : text(order.getDate().getTime()),
+					member == null ? "" : text(member.getId()),
+					member == null ? "" : text(member.getName()),
+					address == null ? "" : text(address.getStreet()),
+					address == null ? "" : text(address.getCity()),
+					address == null ? "" : text(address.getZipcode()))));
+		}
+		Files.write(path, lines, StandardCharsets.UTF_8);
+		return path;
+	}
+
+	private static String text(Object value) {
+		return value == null ? "" : value.toString();
+	}
+
+	static List<Order> orders(int count) {
+		List<Order> orders = new ArrayList<>(count);
+		for(int i = 0; i < count; i++) {
+			Order order = new Order();
+			order.setId((long) i);
+			order.setDate(i % 7 == 0 ? null : new Date(1_500_000_000_000L + i * 1_000L));
+			if(i % 5 != 0) {
+				Member member = new Member();
+				member.setId(i * 10L);
+				member.setName("member-" + i);
+				if(i % 3 != 0) {
+					Address address = new Address();
+					address.setStreet("street " + i);
+					address.setCity(i % 2 == 0 ? "서울" : "Busan");
+					address.setZipcode(String.format("%05d", i % 100));
+					member.setAddress(address);
+				}
+				order.setMember(member);
+			}
+			orders.add(order);
+		}
+		return orders;
+	}
+
+}
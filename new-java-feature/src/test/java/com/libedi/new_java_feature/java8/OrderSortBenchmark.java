@@ -0,0 +1,43 @@
+package com.libedi.new_java_feature.java8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * OrderSort 성능 비교
+ * - 이름이 *Test 가 아니므로 mvn test 에 포함되지 않는다. 실행 : mvn test -Dtest=OrderSortBenchmark
+ * @author Sangjun, Park
+ *
+ */
+public class OrderSortBenchmark {
+
+	/**
+	 * Comparator.comparing() 과 비교
+	 * - 간단한 반복 측정. 정밀한 수치는 JMH 등의 도구를 사용할 것.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CompareWithComparator() throws Exception {
+		List<Order> orders = OrderSortTest.randomOrders(new Random(2), 1_000_000);
+		long time1 = 0;
+		long time2 = 0;
+		for(int round = 0; round < 3; round++) {
+			List<Order> list1 = new ArrayList<>(orders);
+			long start = System.nanoTime();
+			list1.sort(OrderSortTest.BY_DATE);
+			time1 = System.nanoTime() - start;
+
+			List<Order> list2 = new ArrayList<>(orders);
+			start = System.nanoTime();
+			OrderSort.sortByDate(list2, false);
+			time2 = System.nanoTime() - start;
+			OrderSortTest.assertSameOrders(list1, list2);
+		}
+		System.out.println("List.sort(Comparator.comparing(Order::getDate)): " + time1 / 1_000_000 + " ms");
+		System.out.println("OrderSort.sortByDate: " + time2 / 1_000_000 + " ms");
+	}
+
+}
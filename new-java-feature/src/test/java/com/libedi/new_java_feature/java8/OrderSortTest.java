@@ -0,0 +1,115 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * OrderSort 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class OrderSortTest {
+
+	private static final Comparator<Order> BY_ID = Comparator.comparing(Order::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+	private static final Comparator<Order> BY_ID_DESC = Comparator.comparing(Order::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+	static final Comparator<Order> BY_DATE = Comparator.comparing(Order::getDate, Comparator.nullsLast(Comparator.naturalOrder()));
+	private static final Comparator<Order> BY_DATE_DESC = Comparator.comparing(Order::getDate, Comparator.nullsLast(Comparator.reverseOrder()));
+
+	/**
+	 * Collections.sort() (안정 정렬) 와 같은 순서
+	 * - id 는 전체 범위의 임의값이라 radix sort, date 는 범위가 좁아 Arrays.parallelSort() 를 사용한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_SameAsComparator() throws Exception {
+		Random random = new Random(0);
+		for(int size : new int[] { 0, 1, 2, 100, OrderSort.PARALLEL_THRESHOLD * 3 }) {
+			List<Order> orders = randomOrders(random, size);
+
+			assertSorted(orders, BY_ID, list -> OrderSort.sortById(list, false));
+			assertSorted(orders, BY_ID_DESC, list -> OrderSort.sortById(list, true));
+			assertSorted(orders, BY_DATE, list -> OrderSort.sortByDate(list, false));
+			assertSorted(orders, BY_DATE_DESC, list -> OrderSort.sortByDate(list, true));
+		}
+	}
+
+	/**
+	 * 앞의 k 개는 정렬한 목록의 앞부분과 같다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Top() throws Exception {
+		Random random = new Random(1);
+		List<Order> orders = randomOrders(random, 10_000);
+		for(int k : new int[] { 0, 1, 10, 1_000, 20_000 }) {
+			List<Order> sorted = new ArrayList<>(orders);
+			sorted.sort(BY_DATE_DESC);
+			assertSameOrders(sorted.subList(0, Math.min(k, sorted.size())), OrderSort.topByDate(orders, k, true));
+
+			sorted = new ArrayList<>(orders);
+			sorted.sort(BY_ID);
+			assertSameOrders(sorted.subList(0, Math.min(k, sorted.size())), OrderSort.topById(orders, k, false));
+		}
+	}
+
+	/**
+	 * 임의 접근이 아닌 목록과 Long.MIN_VALUE / MAX_VALUE
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Generic() throws Exception {
+		List<Long> values = new LinkedList<>();
+		Collections.addAll(values, 3L, Long.MAX_VALUE, -1L, Long.MIN_VALUE, 0L, 3L, Long.MIN_VALUE + 1);
+		List<Long> expected = new ArrayList<>(values);
+		Collections.sort(expected);
+		OrderSort.sort(values, Long::longValue, false);
+		assertEquals(expected, values);
+		assertEquals(expected.subList(0, 3), OrderSort.top(values, Long::longValue, 3, false));
+	}
+
+	@FunctionalInterface
+	private interface Sorter {
+		void sort(List<Order> list);
+	}
+
+	private static void assertSorted(List<Order> orders, Comparator<Order> comparator, Sorter sorter) {
+		List<Order> expected = new ArrayList<>(orders);
+		expected.sort(comparator);
+		List<Order> actual = new ArrayList<>(orders);
+		sorter.sort(actual);
+		assertSameOrders(expected, actual);
+	}
+
+	/**
+	 * 같은 key 의 순서(안정성)까지 확인하기 위해 객체 동일성으로 비교한다.
+	 */
+	static void assertSameOrders(List<Order> expected, List<Order> actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int i = 0; i < expected.size(); i++) {
+			assertTrue("index " + i, expected.get(i) == actual.get(i));
+		}
+	}
+
+	static List<Order> randomOrders(Random random, int count) {
+		List<Order> orders = new ArrayList<>(count);
+		for(int i = 0; i < count; i++) {
+			Order order = new Order();
+			// 중복 key 와 null 포함
+			order.setId(random.nextInt(20) == 0 ? null : random.nextInt(3) == 0 ? Long.valueOf(random.nextInt(100)) : random.nextLong());
+			order.setDate(random.nextInt(20) == 0 ? null : new Date(1_500_000_000_000L + random.nextInt(1_000_000) * 1_000L));
+			orders.add(order);
+		}
+		return orders;
+	}
+
+}
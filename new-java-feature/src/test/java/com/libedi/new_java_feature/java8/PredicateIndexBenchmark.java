@@ -0,0 +1,67 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+/**
+ * PredicateIndex 성능 비교
+ * - 이름이 *Test 가 아니므로 mvn test 에 포함되지 않는다. 실행 : mvn test -Dtest=PredicateIndexBenchmark
+ * @author Sangjun, Park
+ *
+ */
+public class PredicateIndexBenchmark {
+
+	/**
+	 * 규칙을 하나씩 test() 하는 것과 비교
+	 * - 간단한 반복 측정. 정밀한 수치는 JMH 등의 도구를 사용할 것.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CompareWithPredicates() throws Exception {
+		Random random = new Random(1);
+		List<StringRule> rules = PredicateIndexTest.randomRules(random, 5_000, 3);
+		PredicateIndex.Builder builder = PredicateIndex.builder();
+		rules.forEach(builder::add);
+		PredicateIndex.Matcher matcher = builder.build().matcher();
+		String[] inputs = new String[1_000];
+		for(int i = 0; i < inputs.length; i++) {
+			inputs[i] = PredicateIndexTest.randomText(random, 20 + random.nextInt(40), 3);
+		}
+
+		long count1 = 0;
+		long count2 = 0;
+		long time1 = 0;
+		long time2 = 0;
+		for(int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			count1 = 0;
+			for(String input : inputs) {
+				for(Predicate<String> rule : rules) {
+					if(rule.test(input)) {
+						count1++;
+					}
+				}
+			}
+			time1 = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			count2 = 0;
+			for(String input : inputs) {
+				for(long word : matcher.match(input)) {
+					count2 += Long.bitCount(word);
+				}
+			}
+			time2 = System.nanoTime() - start;
+		}
+		assertEquals(count1, count2);
+
+		System.out.println("Predicate.test() x " + rules.size() + ": " + time1 / inputs.length + " ns/input");
+		System.out.println("PredicateIndex: " + time2 / inputs.length + " ns/input");
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.libedi.new_java_feature.java8;
+
+import static com.libedi.new_java_feature.java8.StringRule.allOf;
+import static com.libedi.new_java_feature.java8.StringRule.anyOf;
+import static com.libedi.new_java_feature.java8.StringRule.contains;
+import static com.libedi.new_java_feature.java8.StringRule.equalTo;
+import static com.libedi.new_java_feature.java8.StringRule.length;
+import static com.libedi.new_java_feature.java8.StringRule.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import com.libedi.new_java_feature.java8.StringRule.Comparison;
+
+/**
+ * PredicateIndex 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class PredicateIndexTest {
+
+	/**
+	 * Java8FunctionalTest 의 t -&gt; t.length() &gt; 10
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Predicate() throws Exception {
+		Predicate<String> predicate = length(Comparison.GT, 10);
+		assertFalse(predicate.test("test"));
+		assertTrue(predicate.test("test-predicate"));
+		assertTrue(length(Comparison.GT, 10).negate().test("test"));
+		assertEquals(startsWith("a").and(contains("b")), allOf(startsWith("a"), contains("b")));
+	}
+
+	/**
+	 * 같은 하위 규칙은 하나의 node 로 합친다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_SharedSubexpressions() throws Exception {
+		PredicateIndex.Builder builder = PredicateIndex.builder();
+		StringRule http = startsWith("http");
+		StringRule github = contains("github");
+		builder.add(http.and(github));
+		builder.add(github.and(http));
+		builder.add(allOf(http, allOf(github, http)));
+		builder.add(http.negate().negate());
+		builder.add(http.and(github).or(equalTo("localhost")));
+		PredicateIndex index = builder.build();
+		// http, github, localhost, and(http, github), or(and, localhost)
+		assertEquals(5, index.nodeCount());
+
+		BitSet expected = new BitSet();
+		expected.set(0, 5);
+		assertEquals(expected, index.match("https://github.com"));
+		expected.clear(0, 3);
+		expected.clear(4);
+		assertEquals(expected, index.match("http://example.com"));
+		assertEquals(BitSet.valueOf(new long[] { 1L << 4 }), index.match("localhost"));
+	}
+
+	/**
+	 * 임의의 규칙과 입력에 대해 규칙을 하나씩 test() 한 결과와 같다.
+	 * - 문자 3 개 : 대부분의 atom 이 참 (모든 node 계산), 문자 8 개 : 일부 atom 만 참 (참이 된 atom 에서 전파)
+	 * @throws Exception
+	 */
+	@Test
+	public void test_SameAsPredicates() throws Exception {
+		Random random = new Random(0);
+		for(int letters : new int[] { 3, 8 }) {
+			List<StringRule> rules = randomRules(random, 5_000, letters);
+			PredicateIndex.Builder builder = PredicateIndex.builder();
+			rules.forEach(builder::add);
+			PredicateIndex index = builder.build();
+			assertEquals(rules.size(), index.size());
+
+			PredicateIndex.Matcher matcher = index.matcher();
+			for(int i = 0; i < 2_000; i++) {
+				String input = randomText(random, random.nextInt(12), letters);
+				BitSet expected = new BitSet();
+				for(int rule = 0; rule < rules.size(); rule++) {
+					if(rules.get(rule).test(input)) {
+						expected.set(rule);
+					}
+				}
+				assertEquals("input: \"" + input + "\"", expected, BitSet.valueOf(matcher.match(input)));
+			}
+		}
+	}
+
+	/**
+	 * 입력마다 계산하는 node 는 참이 된 atom 에서 닿는 node 뿐이다. (규칙 수와 관계없음)
+	 * @throws Exception
+	 */
+	@Test
+	public void test_OnlyReachableNodesAreEvaluated() throws Exception {
+		PredicateIndex.Builder builder = PredicateIndex.builder();
+		for(int i = 0; i < 20_000; i++) {
+			builder.add(startsWith("k" + i + ":").and(contains("v" + i + ";")));
+			builder.add(equalTo("e" + i).negate());
+		}
+		PredicateIndex.Matcher matcher = builder.build().matcher();
+
+		BitSet matched = BitSet.valueOf(matcher.match("k7:v7;"));
+		// and 1 개 + 모든 negate
+		assertEquals(20_001, matched.cardinality());
+		assertTrue(matched.get(14));
+		// atom 2 개와 and 1 개
+		assertEquals(3, matcher.touchedCount());
+
+		matched = BitSet.valueOf(matcher.match("e5"));
+		assertEquals(19_999, matched.cardinality());
+		assertFalse(matched.get(11));
+		// atom 1 개와 negate 1 개
+		assertEquals(2, matcher.touchedCount());
+	}
+
+	static List<StringRule> randomRules(Random random, int count, int letters) {
+		List<StringRule> rules = new ArrayList<>(count);
+		for(int i = 0; i < count; i++) {
+			rules.add(randomRule(random, 3, letters));
+		}
+		return rules;
+	}
+
+	private static StringRule randomRule(Random random, int depth, int letters) {
+		int kind = random.nextInt(depth > 0 ? 7 : 4);
+		switch(kind) {
+			case 0:
+				return length(Comparison.values()[random.nextInt(Comparison.values().length)], random.nextInt(14) - 1);
+			case 1:
+				return startsWith(randomText(random, random.nextInt(4), letters));
+			case 2:
+				return equalTo(randomText(random, random.nextInt(4), letters));
+			case 3:
+				return contains(randomText(random, random.nextInt(4), letters));
+			case 4:
+				return randomRule(random, depth - 1, letters).and(randomRule(random, depth - 1, letters));
+			case 5:
+				return anyOf(randomRule(random, depth - 1, letters), randomRule(random, depth - 1, letters), randomRule(random, depth - 1, letters));
+			default:
+				return randomRule(random, depth - 1, letters).negate();
+		}
+	}
+
+	static String randomText(Random random, int length, int letters) {
+		StringBuilder builder = new StringBuilder(length);
+		for(int i = 0; i < length; i++) {
+			builder.append((char) ('a' + random.nextInt(letters)));
+		}
+		return builder.toString();
+	}
+
+}
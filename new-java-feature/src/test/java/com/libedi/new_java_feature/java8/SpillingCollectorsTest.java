@@ -0,0 +1,269 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * SpillingCollectors 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class SpillingCollectorsTest {
+
+	private static final int SMALL_BUDGET = 16 * 1024;
+
+	private static final Function<Order, String> ZIPCODE = order -> Optional.ofNullable(order.getMember())
+			.map(Member::getAddress)
+			.map(Address::getZipcode)
+			.orElse("-");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * 예산보다 큰 데이터도 Collectors.groupingBy() 와 같은 결과. 같은 key 의 원소는 만난 순서를 유지한다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_GroupingBy() throws Exception {
+		List<Order> orders = OrderLoaderTest.orders(20_000);
+		Map<String, List<Long>> expected = orders.stream()
+				.collect(Collectors.groupingBy(ZIPCODE, Collectors.mapping(Order::getId, Collectors.toList())));
+
+		Path directory = this.folder.newFolder().toPath();
+		try(Stream<Map.Entry<String, List<Order>>> groups = orders.stream().collect(SpillingCollectors.groupingBy(ZIPCODE,
+				SpillSerializer.strings(), SpillSerializer.objects(Order.class), SMALL_BUDGET, directory))) {
+			// 예산을 넘었으므로 run 이 내려져 있다.
+			assertTrue(fileCount(directory) > 1);
+
+			Map<String, List<Long>> actual = groups.collect(Collectors.toMap(Map.Entry::getKey,
+					group -> group.getValue().stream().map(Order::getId).collect(Collectors.toList())));
+			assertEquals(expected, actual);
+		}
+		assertEquals(0, fileCount(directory));
+	}
+
+	/**
+	 * 병렬 stream 도 같은 결과
+	 * @throws Exception
+	 */
+	@Test
+	public void test_GroupingByParallel() throws Exception {
+		List<Order> orders = OrderLoaderTest.orders(20_000);
+		Map<String, List<Long>> expected = orders.stream()
+				.collect(Collectors.groupingBy(ZIPCODE, Collectors.mapping(Order::getId, Collectors.toList())));
+
+		Path directory = this.folder.newFolder().toPath();
+		try(Stream<Map.Entry<String, List<Order>>> groups = orders.parallelStream().collect(SpillingCollectors.groupingBy(ZIPCODE,
+				SpillSerializer.strings(), SpillSerializer.objects(Order.class), SMALL_BUDGET, directory))) {
+			Map<String, List<Long>> actual = groups.collect(Collectors.toMap(Map.Entry::getKey,
+					group -> group.getValue().stream().map(Order::getId).collect(Collectors.toList())));
+			assertEquals(expected, actual);
+		}
+		assertEquals(0, fileCount(directory));
+	}
+
+	/**
+	 * 메모리에 들어가면 임시 파일을 만들지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_InMemory() throws Exception {
+		Path directory = this.folder.newFolder().toPath();
+		try(Stream<Map.Entry<String, List<String>>> groups = Stream.of("a", "bb", "cc", "a", "ddd")
+				.collect(SpillingCollectors.groupingBy(s -> String.valueOf(s.length()),
+						SpillSerializer.strings(), SpillSerializer.strings(), SpillingCollectors.DEFAULT_MEMORY_BUDGET, directory))) {
+			assertEquals(0, fileCount(directory));
+			Map<String, List<String>> actual = groups.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+			assertEquals(Stream.of("a", "bb", "cc", "a", "ddd").collect(Collectors.groupingBy(s -> String.valueOf(s.length()))), actual);
+		}
+		try(Stream<String> empty = Stream.<String> empty().collect(SpillingCollectors.distinct(SpillSerializer.strings(), SMALL_BUDGET))) {
+			assertEquals(0, empty.count());
+		}
+	}
+
+	/**
+	 * hash 가 같은 다른 key 가 섞여 있어도 key 별로 묶인다.
+	 * - "key-131543" 과 "key-132721" 은 정렬에 쓰는 32bit hash 가 같다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_HashCollision() throws Exception {
+		List<String> elements = new ArrayList<>();
+		for(int i = 0; i < 2_000; i++) {
+			elements.add((i % 3 == 0 ? "key-132721:" : "key-131543:") + i);
+		}
+		Function<String, String> key = s -> s.substring(0, s.indexOf(':'));
+		Map<String, List<String>> expected = elements.stream().collect(Collectors.groupingBy(key));
+
+		for(long budget : new long[] { SMALL_BUDGET, SpillingCollectors.DEFAULT_MEMORY_BUDGET }) {
+			try(Stream<Map.Entry<String, List<String>>> groups = elements.stream().collect(SpillingCollectors.groupingBy(key,
+					SpillSerializer.strings(), SpillSerializer.strings(), budget, this.folder.getRoot().toPath()))) {
+				assertEquals(expected, groups.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+			}
+		}
+	}
+
+	/**
+	 * distinct : BloomFilter 유무와 관계없이 HashSet 과 같은 결과
+	 * - 예산이 작아 run 이 여러 개이고, 메모리와 run 양쪽에서 중복을 찾는다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Distinct() throws Exception {
+		Random random = new Random(0);
+		long[] values = LongStream.range(0, 100_000).map(i -> random.nextInt(60_000)).toArray();
+		Set<Long> expected = LongStream.of(values).boxed().collect(Collectors.toSet());
+
+		for(long expectedDistinct : new long[] { 0, 60_000 }) {
+			Path directory = this.folder.newFolder().toPath();
+			try(Stream<Long> distinct = LongStream.of(values).boxed().collect(
+					SpillingCollectors.distinct(SpillSerializer.longs(), 64 * 1024, expectedDistinct, directory))) {
+				List<Long> actual = distinct.collect(Collectors.toList());
+				assertEquals(expected.size(), actual.size());
+				assertEquals(expected, new HashSet<>(actual));
+			}
+			assertEquals(0, fileCount(directory));
+		}
+	}
+
+	/**
+	 * BloomFilter 가 있으면 처음 보는 key 는 run 을 찾아보지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_BloomFilterAvoidsDiskLookups() throws Exception {
+		Path directory = this.folder.newFolder().toPath();
+		int count = 20_000;
+		long[] lookups = new long[2];
+		for(int i = 0; i < 2; i++) {
+			BloomFilter bloom = i == 0 ? null : new BloomFilter(count, SpillingCollectors.BLOOM_FALSE_POSITIVE_RATE);
+			try(SpillStore store = new SpillStore(directory, SMALL_BUDGET, true, bloom)) {
+				// 모두 새 key 이고, 마지막에 앞의 key 를 한 번 더 넣는다.
+				for(long value = 0; value < count; value++) {
+					assertTrue(store.addUnique(SpillSerializer.longs(), value));
+				}
+				assertTrue(store.getRunCount() > 1);
+				for(long value = 0; value < 100; value++) {
+					assertTrue(!store.addUnique(SpillSerializer.longs(), value));
+				}
+				lookups[i] = store.getDiskLookups();
+			}
+		}
+		assertTrue(lookups[0] > count / 2);
+		// 중복 100 개 + 오탐 (1%)
+		assertTrue(lookups[1] < 100 + count / 50);
+	}
+
+	/**
+	 * run 이 병합 버퍼 수보다 많으면 먼저 병합해, 마지막 병합에서 여는 run 수를 제한한다.
+	 * - 예산 16 KB 이면 4 KB 버퍼 4 개
+	 * @throws Exception
+	 */
+	@Test
+	public void test_BoundedFanIn() throws Exception {
+		Path directory = this.folder.newFolder().toPath();
+		List<Order> orders = OrderLoaderTest.orders(20_000);
+		Map<String, List<Order>> expected = orders.stream().collect(Collectors.groupingBy(ZIPCODE));
+		SpillSerializer<Order> serializer = SpillSerializer.objects(Order.class);
+		try(SpillStore store = new SpillStore(directory, SMALL_BUDGET, false, null)) {
+			for(Order order : orders) {
+				store.add(SpillSerializer.strings(), ZIPCODE.apply(order), serializer, order);
+			}
+			assertTrue(store.getRunCount() > 4);
+			try(Stream<Map.Entry<String, List<Order>>> groups = store.groups(SpillSerializer.strings(), serializer)) {
+				assertTrue(store.getRunCount() <= 4);
+				assertEquals(store.getRunCount(), fileCount(directory));
+				assertEquals(expected, groups.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+			}
+		}
+		assertEquals(0, fileCount(directory));
+	}
+
+	/**
+	 * classifier 가 실패하면 이미 내린 run 을 지운다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_FailureDeletesRuns() throws Exception {
+		List<Order> orders = OrderLoaderTest.orders(20_000);
+		Function<Order, String> failing = order -> {
+			if(order.getId() == 15_000) {
+				throw new IllegalStateException("classifier");
+			}
+			return ZIPCODE.apply(order);
+		};
+		for(boolean parallel : new boolean[] { false, true }) {
+			Path directory = this.folder.newFolder().toPath();
+			try {
+				(parallel ? orders.parallelStream() : orders.stream()).collect(SpillingCollectors.groupingBy(failing,
+						SpillSerializer.strings(), SpillSerializer.objects(Order.class), SpillStore.MIN_MEMORY_BUDGET, directory));
+				fail();
+			} catch(IllegalStateException e) {
+				assertEquals("classifier", e.getMessage());
+			}
+			if(parallel) {
+				// 다른 thread 의 저장소는 combiner 에 전달되지 않으므로, GC 된 뒤에 지워진다.
+				awaitDeleted(directory);
+			} else {
+				assertEquals(0, fileCount(directory));
+			}
+		}
+	}
+
+	/**
+	 * 닫지 않고 버린 결과 Stream 의 run 도 GC 된 뒤에 지워진다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_UnclosedStreamIsCleaned() throws Exception {
+		Path directory = this.folder.newFolder().toPath();
+		assertTrue(firstGroupWithoutClose(directory) != null);
+		assertTrue(fileCount(directory) > 0);
+		awaitDeleted(directory);
+	}
+
+	private static String firstGroupWithoutClose(Path directory) {
+		return OrderLoaderTest.orders(20_000).stream()
+				.collect(SpillingCollectors.groupingBy(ZIPCODE, SpillSerializer.strings(), SpillSerializer.objects(Order.class),
+						SMALL_BUDGET, directory))
+				.findFirst()
+				.map(Map.Entry::getKey)
+				.orElse(null);
+	}
+
+	private static void awaitDeleted(Path directory) throws Exception {
+		for(int i = 0; i < 200 && fileCount(directory) > 0; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertEquals(0, fileCount(directory));
+	}
+
+	private static long fileCount(Path directory) throws IOException {
+		try(Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * SqlTimeCodec 성능 비교
+ * - 이름이 *Test 가 아니므로 mvn test 에 포함되지 않는다. 실행 : mvn test -Dtest=SqlTimeCodecBenchmark
+ * @author Sangjun, Park
+ *
+ */
+public class SqlTimeCodecBenchmark {
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+	/**
+	 * ISO 문자열과 비교
+	 * - 간단한 반복 측정. 정밀한 수치는 JMH 등의 도구를 사용할 것.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_CompareWithIsoText() throws Exception {
+		final int count = 100_000;
+		Random random = new Random(2);
+		OffsetDateTime base = OffsetDateTime.of(2018, 9, 21, 0, 0, 0, 0, ZoneOffset.ofHours(9));
+		OffsetDateTime[] values = new OffsetDateTime[count];
+		for(int i = 0; i < count; i++) {
+			values[i] = base.plusNanos(random.nextInt(1_000_000) * 1_000_000_000L + random.nextInt(1000) * 1_000_000L);
+		}
+
+		long isoBytes = 0;
+		long binaryBytes = 0;
+		long time1 = 0;
+		long time2 = 0;
+		for(int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			isoBytes = 0;
+			for(OffsetDateTime value : values) {
+				byte[] bytes = value.toString().getBytes(StandardCharsets.US_ASCII);
+				isoBytes += bytes.length;
+				assertEquals(value, OffsetDateTime.parse(new String(bytes, StandardCharsets.US_ASCII)));
+			}
+			time1 = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			this.buffer.clear();
+			for(OffsetDateTime value : values) {
+				SqlTimeCodec.writeTimestampWithTimezone(this.buffer, value);
+			}
+			binaryBytes = this.buffer.position();
+			this.buffer.flip();
+			for(OffsetDateTime value : values) {
+				assertEquals(value, SqlTimeCodec.readTimestampWithTimezone(this.buffer));
+			}
+			time2 = System.nanoTime() - start;
+		}
+		assertTrue(isoBytes >= binaryBytes * 3);
+
+		System.out.println("ISO text: " + isoBytes / count + " bytes, " + time1 / count + " ns/op");
+		System.out.println("SqlTimeCodec: " + binaryBytes / count + " bytes, " + time2 / count + " ns/op");
+	}
+
+}
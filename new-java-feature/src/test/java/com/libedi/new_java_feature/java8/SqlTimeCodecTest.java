@@ -0,0 +1,175 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * SqlTimeCodec 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class SqlTimeCodecTest {
+
+	private static final ZoneOffset[] OFFSETS = {
+			ZoneOffset.UTC, ZoneOffset.ofHours(9), ZoneOffset.ofHoursMinutes(5, 45), ZoneOffset.ofHoursMinutes(-3, -30),
+			ZoneOffset.MIN, ZoneOffset.MAX, ZoneOffset.ofHoursMinutesSeconds(0, 19, 32), ZoneOffset.ofTotalSeconds(-1)
+	};
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+	/**
+	 * 경계값 round-trip
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Boundaries() throws Exception {
+		LocalDate[] dates = { LocalDate.MIN, LocalDate.MAX, LocalDate.of(1970, 1, 1), LocalDate.of(1969, 12, 31) };
+		LocalTime[] times = { LocalTime.MIN, LocalTime.MAX, LocalTime.NOON, LocalTime.of(13, 42, 30, 123_000_000),
+				LocalTime.of(0, 0, 0, 1_000), LocalTime.of(0, 0, 0, 1) };
+		for(LocalDate date : dates) {
+			for(LocalTime time : times) {
+				for(ZoneOffset offset : OFFSETS) {
+					assertRoundTrip(OffsetDateTime.of(date, time, offset));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 임의의 값 round-trip
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Random() throws Exception {
+		Random random = new Random(0);
+		for(int i = 0; i < 10_000; i++) {
+			assertRoundTrip(randomValue(random));
+		}
+	}
+
+	/**
+	 * 컬럼 형식 round-trip (null 포함)
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Columns() throws Exception {
+		Random random = new Random(1);
+		for(int length : new int[] { 0, 1, 7, 8, 9, 1000 }) {
+			OffsetDateTime[] values = new OffsetDateTime[length];
+			for(int i = 0; i < length; i++) {
+				values[i] = random.nextInt(5) == 0 ? null : randomValue(random);
+			}
+			LocalDate[] dates = new LocalDate[length];
+			LocalTime[] times = new LocalTime[length];
+			LocalDateTime[] timestamps = new LocalDateTime[length];
+			OffsetTime[] offsetTimes = new OffsetTime[length];
+			for(int i = 0; i < length; i++) {
+				if(values[i] != null) {
+					dates[i] = values[i].toLocalDate();
+					times[i] = values[i].toLocalTime();
+					timestamps[i] = values[i].toLocalDateTime();
+					offsetTimes[i] = values[i].toOffsetTime();
+				}
+			}
+
+			this.buffer.clear();
+			SqlTimeCodec.writeDates(this.buffer, dates);
+			SqlTimeCodec.writeTimes(this.buffer, times);
+			SqlTimeCodec.writeTimestamps(this.buffer, timestamps);
+			SqlTimeCodec.writeTimesWithTimezone(this.buffer, offsetTimes);
+			SqlTimeCodec.writeTimestampsWithTimezone(this.buffer, values);
+			this.buffer.flip();
+			assertArrayEquals(dates, SqlTimeCodec.readDates(this.buffer));
+			assertArrayEquals(times, SqlTimeCodec.readTimes(this.buffer));
+			assertArrayEquals(timestamps, SqlTimeCodec.readTimestamps(this.buffer));
+			assertArrayEquals(offsetTimes, SqlTimeCodec.readTimesWithTimezone(this.buffer));
+			assertArrayEquals(values, SqlTimeCodec.readTimestampsWithTimezone(this.buffer));
+			assertFalse(this.buffer.hasRemaining());
+		}
+	}
+
+	/**
+	 * 개수가 Integer.MAX_VALUE 여도 bitmap 크기 계산이 넘치지 않고, 데이터가 부족하다고 알린다.
+	 * @throws Exception
+	 */
+	@Test(expected = BufferUnderflowException.class)
+	public void test_ColumnLengthNearMaxValue() throws Exception {
+		this.buffer.clear();
+		SqlTimeCodec.writeVarLong(this.buffer, Integer.MAX_VALUE);
+		this.buffer.flip();
+		SqlTimeCodec.readDates(this.buffer);
+	}
+
+	/**
+	 * ISO 문자열보다 작다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Size() throws Exception {
+		OffsetDateTime value = OffsetDateTime.of(2018, 9, 21, 13, 42, 30, 123_000_000, ZoneOffset.ofHours(9));
+		this.buffer.clear();
+		SqlTimeCodec.writeTimestampWithTimezone(this.buffer, value);
+		int isoSize = value.toString().getBytes(StandardCharsets.US_ASCII).length;
+		assertEquals(8, this.buffer.position());
+		assertTrue(isoSize >= this.buffer.position() * 3);
+
+		this.buffer.clear();
+		SqlTimeCodec.writeDate(this.buffer, value.toLocalDate());
+		assertEquals(3, this.buffer.position());
+		SqlTimeCodec.writeTime(this.buffer, LocalTime.of(13, 42, 30));
+		assertEquals(3 + 3, this.buffer.position());
+	}
+
+	private void assertRoundTrip(OffsetDateTime value) {
+		this.buffer.clear();
+		SqlTimeCodec.writeDate(this.buffer, value.toLocalDate());
+		SqlTimeCodec.writeTime(this.buffer, value.toLocalTime());
+		SqlTimeCodec.writeTimestamp(this.buffer, value.toLocalDateTime());
+		SqlTimeCodec.writeTimeWithTimezone(this.buffer, value.toOffsetTime());
+		SqlTimeCodec.writeTimestampWithTimezone(this.buffer, value);
+		this.buffer.flip();
+		assertEquals(value.toLocalDate(), SqlTimeCodec.readDate(this.buffer));
+		assertEquals(value.toLocalTime(), SqlTimeCodec.readTime(this.buffer));
+		assertEquals(value.toLocalDateTime(), SqlTimeCodec.readTimestamp(this.buffer));
+		assertEquals(value.toOffsetTime(), SqlTimeCodec.readTimeWithTimezone(this.buffer));
+		assertEquals(value, SqlTimeCodec.readTimestampWithTimezone(this.buffer));
+		assertFalse(this.buffer.hasRemaining());
+	}
+
+	private static OffsetDateTime randomValue(Random random) {
+		LocalDate date = LocalDate.ofEpochDay(random.nextInt(2) == 0
+				? random.nextInt(100_000) - 50_000
+				: LocalDate.MIN.toEpochDay() + (long) (random.nextDouble() * (LocalDate.MAX.toEpochDay() - LocalDate.MIN.toEpochDay())));
+		long nanoOfDay = (long) (random.nextDouble() * LocalTime.MAX.toNanoOfDay());
+		switch(random.nextInt(4)) {
+			case 0:
+				nanoOfDay -= nanoOfDay % 1_000_000_000L;
+				break;
+			case 1:
+				nanoOfDay -= nanoOfDay % 1_000_000L;
+				break;
+			case 2:
+				nanoOfDay -= nanoOfDay % 1_000L;
+				break;
+			default:
+				break;
+		}
+		return OffsetDateTime.of(date, LocalTime.ofNanoOfDay(nanoOfDay), OFFSETS[random.nextInt(OFFSETS.length)]);
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.libedi.new_java_feature.java8;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * TimeBucketCounter 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class TimeBucketCounterTest {
+
+	/**
+	 * LocalDateTime.truncatedTo() 로 구간을 나눈 Map 과 같은 결과
+	 * @throws Exception
+	 */
+	@Test
+	public void test_SameAsTruncatedTo() throws Exception {
+		ZoneOffset offset = ZoneOffset.ofHoursMinutes(9, 30);
+		long base = LocalDateTime.of(2018, 9, 21, 13, 42, 30).toInstant(offset).toEpochMilli();
+		Random random = new Random(0);
+
+		for(ChronoUnit unit : new ChronoUnit[] {ChronoUnit.MINUTES, ChronoUnit.HOURS, ChronoUnit.DAYS}) {
+			TimeBucketCounter counter = new TimeBucketCounter(unit, 1_000, offset);
+			Map<LocalDateTime, Long> expected = new TreeMap<>();
+			for(int i = 0; i < 10_000; i++) {
+				long epochMillis = base + (long) (random.nextDouble() * 100 * unit.getDuration().toMillis());
+				counter.record(epochMillis);
+				LocalDateTime truncated = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), offset).truncatedTo(unit);
+				expected.merge(truncated, 1L, Long::sum);
+
+				assertEquals(truncated.toInstant(offset).toEpochMilli(), counter.bucketStart(epochMillis));
+			}
+			assertEquals(expected, counter.snapshot());
+			assertEquals(0, counter.droppedCount());
+		}
+	}
+
+	/**
+	 * 보관 범위를 벗어난 구간은 새 구간으로 교체되고, 오래된 이벤트는 버려진다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Rollover() throws Exception {
+		long minute = TimeUnit.MINUTES.toMillis(1);
+		TimeBucketCounter counter = new TimeBucketCounter(ChronoUnit.MINUTES, 3);
+
+		counter.record(0);
+		counter.record(minute, 2);
+		counter.record(3 * minute + 1);	// 0분 구간을 교체
+		assertEquals(0, counter.count(0));
+		assertEquals(2, counter.count(minute));
+		assertEquals(1, counter.count(3 * minute));
+
+		counter.record(10);					// 이미 교체된 구간
+		assertEquals(1, counter.droppedCount());
+		assertEquals(3, counter.snapshot().values().stream().mapToLong(Long::longValue).sum());
+	}
+
+	/**
+	 * 여러 스레드에서 동시에 기록
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ConcurrentRecord() throws Exception {
+		final int threads = 8;
+		final int eventsPerThread = 200_000;
+		long minute = TimeUnit.MINUTES.toMillis(1);
+		TimeBucketCounter counter = new TimeBucketCounter(ChronoUnit.MINUTES, 60);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for(int t = 0; t < threads; t++) {
+			executor.execute(() -> {
+				for(int i = 0; i < eventsPerThread; i++) {
+					counter.record((i % 10) * minute + i % 1000);
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+
+		for(int m = 0; m < 10; m++) {
+			assertEquals(threads * eventsPerThread / 10, counter.count(m * minute));
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+package com.libedi.new_java_feature.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.libedi.new_java_feature.java7.MultiExceptionClass;
+import com.libedi.new_java_feature.java7.NewResource;
+import com.libedi.new_java_feature.java7.TestException;
+import com.libedi.new_java_feature.java8.Order;
+import com.libedi.new_java_feature.java8.OrderLoader;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * JFR 이벤트 테스트
+ * @author Sangjun, Park
+ *
+ */
+public class JfrEventTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * threshold 를 0 으로 하면 모든 이벤트가 기록된다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_RecordAllEvents() throws Exception {
+		List<RecordedEvent> events;
+		try(Recording recording = new Recording()) {
+			recording.enable(ResourceEvent.NAME).withThreshold(Duration.ZERO);
+			recording.enable(ExceptionThrowEvent.NAME);
+			recording.enable(StreamPipelineEvent.NAME).withThreshold(Duration.ZERO);
+			recording.start();
+
+			runHotPaths();
+
+			recording.stop();
+			events = readEvents(recording);
+		}
+
+		List<String> operations = events.stream()
+				.filter(e -> e.getEventType().getName().equals(ResourceEvent.NAME))
+				.map(e -> e.getString("operation"))
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList(ResourceEvent.ACQUIRE, ResourceEvent.USE, ResourceEvent.CLOSE, ResourceEvent.ACQUIRE), operations);
+
+		assertEquals(3, count(events, ExceptionThrowEvent.NAME));
+
+		RecordedEvent pipeline = events.stream()
+				.filter(e -> e.getEventType().getName().equals(StreamPipelineEvent.NAME))
+				.findFirst()
+				.get();
+		assertEquals(OrderLoader.PIPELINE, pipeline.getString("pipeline"));
+		assertEquals(10, pipeline.getLong("elementCount"));
+	}
+
+	/**
+	 * 제공하는 .jfc 설정에서는 threshold 보다 빠른 호출은 기록되지 않는다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_ProfileThresholds() throws Exception {
+		Configuration configuration;
+		try(Reader reader = new InputStreamReader(getClass().getResourceAsStream("/jfr/new-java-feature.jfc"), StandardCharsets.UTF_8)) {
+			configuration = Configuration.create(reader);
+		}
+
+		// 첫 호출의 클래스 로딩 시간은 제외
+		runHotPaths();
+
+		List<RecordedEvent> events;
+		try(Recording recording = new Recording(configuration)) {
+			recording.start();
+			runHotPaths();
+			recording.stop();
+			events = readEvents(recording);
+		}
+
+		// 느린 호출(GC, JIT 등)만 기록될 수 있다.
+		assertAboveThreshold(events, ResourceEvent.NAME, Duration.ofMillis(10));
+		assertAboveThreshold(events, StreamPipelineEvent.NAME, Duration.ofMillis(10));
+		assertEquals(3, count(events, ExceptionThrowEvent.NAME));
+	}
+
+	/**
+	 * JFR 이 비활성이어도 결과는 같다.
+	 * @throws Exception
+	 */
+	@Test
+	public void test_Disabled() throws Exception {
+		runHotPaths();
+	}
+
+	private void runHotPaths() throws Exception {
+		try(NewResource resource = NewResource.getResource(false)) {
+			resource.use();
+		}
+		try {
+			NewResource.getResource(true);
+			fail();
+		} catch(IOException e) {
+			// 예외 이벤트 기록
+		}
+
+		MultiExceptionClass exceptionClass = new MultiExceptionClass();
+		try {
+			exceptionClass.throwIOException();
+		} catch(IOException e) {
+			// 예외 이벤트 기록
+		}
+		try {
+			exceptionClass.throwTestException();
+		} catch(TestException e) {
+			// 예외 이벤트 기록
+		}
+
+		// 주문 번호만 있는 10건
+		Path path = Files.write(this.folder.newFile().toPath(),
+				IntStream.rangeClosed(1, 10).mapToObj(i -> i + "||||||").collect(Collectors.toList()));
+		try(Stream<Order> orders = OrderLoader.load(path)) {
+			assertEquals(8.0, orders.mapToLong(Order::getId).filter(n -> n > 5).average().getAsDouble(), 0.0);
+		}
+	}
+
+	private List<RecordedEvent> readEvents(Recording recording) throws IOException {
+		Path path = this.folder.newFile("recording.jfr").toPath();
+		recording.dump(path);
+		List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+		assertTrue(events.size() > 0);
+		return events;
+	}
+
+	private static void assertAboveThreshold(List<RecordedEvent> events, String name, Duration threshold) {
+		events.stream()
+				.filter(e -> e.getEventType().getName().equals(name))
+				.forEach(e -> assertTrue(name + " " + e.getDuration(), e.getDuration().compareTo(threshold) >= 0));
+	}
+
+	private static long count(List<RecordedEvent> events, String name) {
+		return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+	}
+
+}